@@ -1,10 +1,13 @@
 package com.example.demo.auth;
 
 import com.example.demo.exception.InvalidCredentialsException;
+import com.example.demo.exception.ServiceBusyException;
+import com.example.demo.exception.TooManyAttemptsException;
 import com.example.demo.exception.UserAlreadyExistsException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.jwt.AuthenticationResponse;
 import com.example.demo.user.User;
+import com.example.demo.util.CustomApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -20,6 +23,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.UUID;
+
 @RequestMapping("api/v1/auth")
 @RestController
 public class AuthController {
@@ -49,7 +55,9 @@ public class AuthController {
             @Content(mediaType = "application/json", schema =
             @Schema(implementation = AuthenticationResponse.class),
                     examples = @ExampleObject(value = "{\"accessToken\":null,\"refreshToken\":null,\"message\":\"Invalid credentials\"}"))
-            )
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many attempts"),
+            @ApiResponse(responseCode = "503", description = "Too many credential checks in progress")
     })
     @PostMapping
     public ResponseEntity<AuthenticationResponse> login(@RequestBody UserAuth payload, HttpServletResponse response) {
@@ -60,6 +68,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new AuthenticationResponse(null, null, e.getMessage()));
         } catch (InvalidCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthenticationResponse(null, null, e.getMessage()));
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new AuthenticationResponse(null, null, e.getMessage()));
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new AuthenticationResponse(null, null, e.getMessage()));
         }
     }
 
@@ -76,7 +88,9 @@ public class AuthController {
             @Content(mediaType = "application/json", schema =
             @Schema(implementation = AuthenticationResponse.class),
                     examples = @ExampleObject(value = "{\"accessToken\":null,\"refreshToken\":null,\"message\":\"User already exists\"}"))
-            )
+            ),
+            @ApiResponse(responseCode = "429", description = "Too many attempts"),
+            @ApiResponse(responseCode = "503", description = "Too many credential checks in progress")
     })
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(@RequestBody User user) {
@@ -85,6 +99,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (UserAlreadyExistsException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(new AuthenticationResponse(null, null, e.getMessage()));
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new AuthenticationResponse(null, null, e.getMessage()));
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new AuthenticationResponse(null, null, e.getMessage()));
         }
     }
 
@@ -102,4 +120,21 @@ public class AuthController {
     ) {
         return authService.refreshToken(request, response);
     }
+
+    /**
+     * Endpoint to revoke every session of the given users. Restricted to administrators.
+     *
+     * @param userIds UUIDs of the users whose sessions should be revoked.
+     * @return ResponseEntity with the number of revoked tokens.
+     */
+    @Operation(summary = "Revoke all sessions of the given users")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions revoked successfully"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PostMapping("/revoke")
+    public ResponseEntity<CustomApiResponse> revokeSessions(@RequestBody List<UUID> userIds) {
+        int revoked = authService.revokeAllSessions(userIds);
+        return ResponseEntity.ok(new CustomApiResponse(HttpStatus.OK, "Revoked " + revoked + " tokens of " + userIds.size() + " users."));
+    }
 }
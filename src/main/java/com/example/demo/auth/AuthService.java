@@ -1,77 +1,96 @@
 package com.example.demo.auth;
 
+import com.example.demo.exception.InvalidCredentialsException;
 import com.example.demo.exception.UserAlreadyExistsException;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.jwt.AuthenticationResponse;
 import com.example.demo.jwt.JwtService;
 import com.example.demo.jwt.Token;
+import com.example.demo.jwt.TokenEpochService;
 import com.example.demo.jwt.TokenRepository;
+import com.example.demo.jwt.VerifiedToken;
+import com.example.demo.user.LastLoginBuffer;
 import com.example.demo.user.User;
 import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
 import com.example.demo.util.CookieUtils;
+import com.example.demo.util.HashUtils;
 import com.example.demo.util.HeaderUtils;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class AuthService {
-    private final UserAuthRepository userAuthRepository;
+    // Maximum number of users revoked by a single bulk statement.
+    private static final int REVOKE_CHUNK_SIZE = 1000;
+
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final TokenRepository tokenRepository;
     private final UserRepository userRepository;
+    private final TokenEpochService tokenEpochService;
+    private final UserService userService;
+    private final CredentialExecutor credentialExecutor;
+    private final LoginThrottle loginThrottle;
+    private final LastLoginBuffer lastLoginBuffer;
 
     // Constructor to inject dependencies
-    public AuthService(UserAuthRepository userAuthRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, TokenRepository tokenRepository, UserRepository userRepository) {
-        this.userAuthRepository = userAuthRepository;
+    public AuthService(PasswordEncoder passwordEncoder, JwtService jwtService, TokenRepository tokenRepository, UserRepository userRepository, TokenEpochService tokenEpochService, UserService userService, CredentialExecutor credentialExecutor, LoginThrottle loginThrottle, LastLoginBuffer lastLoginBuffer) {
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
+        this.tokenEpochService = tokenEpochService;
+        this.userService = userService;
+        this.credentialExecutor = credentialExecutor;
+        this.loginThrottle = loginThrottle;
+        this.lastLoginBuffer = lastLoginBuffer;
     }
 
     /**
      * Authenticate a user and generate JWT tokens.
+     * The users table is read at most once (not at all when the user is cached); the login time is written behind.
      *
      * @param request  User credentials.
      * @param response HttpServletResponse to set cookies.
      * @return AuthenticationResponse containing access and refresh tokens.
      */
     public AuthenticationResponse authenticate(UserAuth request, HttpServletResponse response) {
-        Optional<UserAuth> userOptional = Optional.ofNullable(userAuthRepository.findByEmail(request.getEmail()));
+        // Reject over-limit attempts for this email before any lookup or password check
+        loginThrottle.checkEmail(request.getEmail());
+
+        Optional<UserAuth> userOptional = Optional.ofNullable(userService.loadUserAuth(request.getEmail()));
         if (userOptional.isEmpty()) {
             throw new UserNotFoundException("User not found");
         }
 
         UserAuth user = userOptional.get();
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // Verify the password against the loaded hash on the dedicated credential executor
+        boolean passwordMatches = request.getPassword() != null && credentialExecutor.execute(
+                () -> passwordEncoder.matches(request.getPassword(), user.getPassword()));
+        if (!passwordMatches) {
+            throw new InvalidCredentialsException("Invalid credentials");
+        }
 
-        User userEntity = userRepository.findByEmail(request.getEmail());
-        userEntity.setLastLogin(LocalDateTime.now());
-        userRepository.save(userEntity);
+        lastLoginBuffer.record(user.getId(), LocalDateTime.now());
+
+        // Revoke older tokens first so the new ones are issued in the new epoch
+        revokeAllTokenByUser(user);
 
         String accessToken = jwtService.generateAccessToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
 
-        revokeAllTokenByUser(user);
         saveUserToken(accessToken, refreshToken, user);
 
         // Set cookies for access and refresh tokens
@@ -87,20 +106,29 @@ public class AuthService {
 
     /**
      * Revoke all tokens for a given user.
+     * Bumping the user's token epoch is what invalidates the tokens; the stored rows are only flagged for bookkeeping.
      *
      * @param user User whose tokens need to be revoked.
      */
     private void revokeAllTokenByUser(UserAuth user) {
-        List<Token> validTokens = tokenRepository.findAllAccessTokensByUser(user.getId());
-        if (validTokens.isEmpty()) {
-            return;
-        }
-
-        validTokens.forEach(t -> {
-            t.setLoggedOut(true);
-        });
+        tokenEpochService.revokeAll(user.getId());
+        tokenRepository.logoutAllByUser(user.getId());
+    }
 
-        tokenRepository.saveAll(validTokens);
+    /**
+     * Revoke all sessions of the given users, in chunks of set-based statements.
+     *
+     * @param userIds UUIDs of the users whose tokens need to be revoked.
+     * @return the number of token rows that were logged out.
+     */
+    public int revokeAllSessions(List<UUID> userIds) {
+        int loggedOut = 0;
+        for (int from = 0; from < userIds.size(); from += REVOKE_CHUNK_SIZE) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + REVOKE_CHUNK_SIZE, userIds.size()));
+            tokenEpochService.revokeAll(chunk);
+            loggedOut += tokenRepository.logoutAllByUsers(chunk);
+        }
+        return loggedOut;
     }
 
     /**
@@ -110,7 +138,9 @@ public class AuthService {
      * @return AuthenticationResponse containing access and refresh tokens.
      */
     public AuthenticationResponse register(User request) {
-        if (userRepository.findByEmail(request.getEmail()) != null) {
+        loginThrottle.checkEmail(request.getEmail());
+
+        if (userRepository.existsByEmail(request.getEmail())) {
             throw new UserAlreadyExistsException("User already exists");
         }
 
@@ -118,12 +148,10 @@ public class AuthService {
 
         user.setName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-
-        userRepository.save(user);
+        user.setPassword(credentialExecutor.execute(() -> passwordEncoder.encode(request.getPassword())));
 
-        Optional<UserAuth> userOptional = Optional.ofNullable(userAuthRepository.findByEmail(request.getEmail()));
-        UserAuth userAuth = userOptional.get();
+        // Build the authentication details from the saved entity instead of reading the row back
+        UserAuth userAuth = UserAuth.of(userRepository.save(user));
 
         String accessToken = jwtService.generateAccessToken(userAuth);
         String refreshToken = jwtService.generateRefreshToken(userAuth);
@@ -142,10 +170,12 @@ public class AuthService {
      */
     private void saveUserToken(String accessToken, String refreshToken, UserAuth user) {
         Token token = new Token();
-        token.setAccessToken(accessToken);
-        token.setRefreshToken(refreshToken);
+        token.setAccessTokenDigest(HashUtils.sha256(accessToken));
+        token.setRefreshTokenDigest(HashUtils.sha256(refreshToken));
         token.setLoggedOut(false);
-        token.setUser(user);
+        token.setIssuedAt(LocalDateTime.now());
+        token.setExpiresAt(token.getIssuedAt().plus(Duration.ofMillis(jwtService.getRefreshTokenExpire())));
+        token.setUser(userRepository.getReferenceById(user.getId())); // Reference only, no query
         tokenRepository.save(token);
     }
 
@@ -168,19 +198,23 @@ public class AuthService {
 
         String token = authHeader.substring(7);
 
-        // Extract username from token
-        String username = jwtService.extractUsername(token);
+        // Parse and verify the token once
+        Optional<VerifiedToken> verifiedToken = jwtService.verify(token);
+        if (verifiedToken.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AuthenticationResponse(null, null, "Unauthorized"));
+        }
 
-        // Check if the user exists in the database
-        UserAuth user = userAuthRepository.findByEmail(username);
+        // Check if the user exists
+        UserAuth user = userService.loadUserAuth(verifiedToken.get().subject());
 
         // Check if the token is valid
-        if (jwtService.isValidRefreshToken(token, user)) {
-            // Generate new access and refresh tokens
+        if (user != null && jwtService.isValidRefreshToken(verifiedToken.get(), user)) {
+            // Revoke older tokens, then generate new access and refresh tokens in the new epoch
+            revokeAllTokenByUser(user);
+
             String accessToken = jwtService.generateAccessToken(user);
             String refreshToken = jwtService.generateRefreshToken(user);
 
-            revokeAllTokenByUser(user);
             saveUserToken(accessToken, refreshToken, user);
 
             return ResponseEntity.ok(new AuthenticationResponse(accessToken, refreshToken, "Token refreshed successfully"));
@@ -0,0 +1,150 @@
+package com.example.demo.auth;
+
+import com.example.demo.exception.ServiceBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded executor for password hashing and verification.
+ * BCrypt runs on its own threads instead of Tomcat workers; when both the threads and the wait queue are
+ * full, new credential checks are rejected immediately so cheap requests keep their workers.
+ * A check whose caller stopped waiting is cancelled and taken out of the queue, and a check that reaches a thread
+ * after its caller's deadline is skipped, so abandoned checks neither hold queue slots nor spend hashing time.
+ */
+@Component
+public class CredentialExecutor implements MeterBinder, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor to initialize CredentialExecutor.
+     *
+     * @param threads       the number of hashing threads, or 0 to use one per available core.
+     * @param queueCapacity the maximum number of credential checks waiting for a thread.
+     * @param timeoutMillis the maximum time a request waits for its credential check.
+     */
+    public CredentialExecutor(@Value("${application.credentials.threads}") int threads,
+                              @Value("${application.credentials.queue-capacity}") int queueCapacity,
+                              @Value("${application.credentials.timeout}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "credentials-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs a credential task on the executor and waits for its result.
+     *
+     * @param task the task, e.g. hashing or verifying a password.
+     * @param <T>  the result type.
+     * @return the result of the task.
+     * @throws ServiceBusyException if the executor is saturated or the task does not finish in time.
+     */
+    public <T> T execute(Supplier<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        FutureTask<T> future = new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            if (start - deadline >= 0) {
+                throw new CancellationException("Caller stopped waiting"); // Dequeued before the caller cancelled it
+            }
+            try {
+                return task.get();
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+                completed.increment();
+            }
+        });
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many credential checks in progress, try again later");
+        }
+
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            rejected.increment();
+            throw new ServiceBusyException("Credential check timed out, try again later");
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Credential check was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                rejected.increment(); // Skipped for reaching a thread at the deadline
+                throw new ServiceBusyException("Credential check timed out, try again later");
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancels a task whose caller stopped waiting and frees its queue slot if it has not started yet.
+     * A cancelled task would otherwise stay queued until a thread takes it, so it could cause new checks to be
+     * rejected as busy.
+     */
+    private void abandon(FutureTask<?> future) {
+        future.cancel(true);
+        executor.remove(future);
+    }
+
+    /**
+     * Registers the executor metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("credentials.queue.depth", executor, e -> e.getQueue().size())
+                .description("Credential checks waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("credentials.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Credential checks currently hashing")
+                .register(registry);
+        FunctionTimer.builder("credentials.hash", this,
+                        c -> c.completed.sum(), c -> c.busyNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent hashing or verifying passwords")
+                .register(registry);
+        FunctionCounter.builder("credentials.rejected", rejected, LongAdder::sum)
+                .description("Credential checks rejected because the executor was saturated")
+                .register(registry);
+    }
+
+    /**
+     * Stops the hashing threads when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
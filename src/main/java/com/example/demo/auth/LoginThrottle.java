@@ -0,0 +1,99 @@
+package com.example.demo.auth;
+
+import com.example.demo.exception.TooManyAttemptsException;
+import com.example.demo.util.RateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles authentication attempts per client address and per email,
+ * so over-limit attempts are rejected before any database or BCrypt work.
+ */
+@Component
+public class LoginThrottle implements MeterBinder {
+
+    private final RateLimiter addressLimiter;
+    private final RateLimiter emailLimiter;
+
+    /**
+     * Constructor to initialize LoginThrottle with its limits.
+     *
+     * @param addressCapacity     burst of attempts allowed per client address.
+     * @param addressRefillPeriod time to regain one attempt per client address, in milliseconds.
+     * @param emailCapacity       burst of attempts allowed per email.
+     * @param emailRefillPeriod   time to regain one attempt per email, in milliseconds.
+     * @param maxKeys             maximum number of addresses or emails tracked at once.
+     */
+    public LoginThrottle(@Value("${application.throttle.address.capacity}") int addressCapacity,
+                         @Value("${application.throttle.address.refill-period}") long addressRefillPeriod,
+                         @Value("${application.throttle.email.capacity}") int emailCapacity,
+                         @Value("${application.throttle.email.refill-period}") long emailRefillPeriod,
+                         @Value("${application.throttle.max-keys}") int maxKeys) {
+        this.addressLimiter = new RateLimiter(addressCapacity, Duration.ofMillis(addressRefillPeriod), maxKeys);
+        this.emailLimiter = new RateLimiter(emailCapacity, Duration.ofMillis(emailRefillPeriod), maxKeys);
+    }
+
+    /**
+     * Consumes one attempt for a client address.
+     *
+     * @param remoteAddress the client address.
+     * @return true if the attempt is allowed, false otherwise.
+     */
+    public boolean tryAcquireAddress(String remoteAddress) {
+        return addressLimiter.tryAcquire(remoteAddress);
+    }
+
+    /**
+     * Consumes one attempt for an email address.
+     *
+     * @param email the email the attempt is made for.
+     * @throws TooManyAttemptsException if the email is over its limit.
+     */
+    public void checkEmail(String email) {
+        if (email != null && !emailLimiter.tryAcquire(email.toLowerCase(Locale.ROOT))) {
+            throw new TooManyAttemptsException("Too many attempts, try again later");
+        }
+    }
+
+    /**
+     * Periodically drops keys whose buckets have refilled.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        addressLimiter.evictIdle();
+        emailLimiter.evictIdle();
+    }
+
+    /**
+     * Registers the throttling metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "address", addressLimiter);
+        bind(registry, "email", emailLimiter);
+    }
+
+    private static void bind(MeterRegistry registry, String key, RateLimiter limiter) {
+        FunctionCounter.builder("auth.throttle.rejected", limiter, RateLimiter::rejectedCount)
+                .tag("key", key)
+                .description("Authentication attempts rejected by the throttle")
+                .register(registry);
+        FunctionCounter.builder("auth.throttle.displaced", limiter, RateLimiter::displacedCount)
+                .tag("key", key)
+                .description("Keys dropped to make room because the throttle was tracking too many keys")
+                .register(registry);
+        Gauge.builder("auth.throttle.keys", limiter, RateLimiter::trackedKeys)
+                .tag("key", key)
+                .register(registry);
+    }
+}
@@ -1,13 +1,9 @@
 package com.example.demo.auth;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.Id;
+import com.example.demo.user.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
-import org.hibernate.annotations.Immutable;
-import org.hibernate.annotations.Subselect;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,19 +14,14 @@ import java.util.List;
 import java.util.UUID;
 
 /**
- * Entity representing user authentication details.
+ * Authentication details of a user: a narrow, read-only projection of the users table.
  * Implements UserDetails for Spring Security integration.
  */
-@Entity
-@Immutable
-@Subselect("SELECT id, email, password, role FROM users")   // SQL query to fetch data from the view
 @Setter
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserAuth implements UserDetails, Serializable {
-    @Id
-    @GeneratedValue(generator = "UUID")
     @Setter(AccessLevel.PROTECTED)
     private UUID id;  // Unique identifier for the user
 
@@ -43,6 +34,16 @@ public class UserAuth implements UserDetails, Serializable {
 
     private Role role = Role.GUEST;  // User's role, default is GUEST
 
+    /**
+     * Builds the authentication details of a user that is already loaded, without another query.
+     *
+     * @param user the user entity.
+     * @return the authentication details.
+     */
+    public static UserAuth of(User user) {
+        return new UserAuth(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+
     /**
      * Returns the authorities granted to the user.
      *
@@ -1,14 +1,16 @@
 package com.example.demo.auth;
 
+import com.example.demo.user.User;
 import jakarta.transaction.Transactional;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
 
 import java.util.UUID;
 
-@Repository
+@org.springframework.stereotype.Repository
 @Transactional
-public interface UserAuthRepository extends JpaRepository<UserAuth, UUID> {
-    // Find a user by their email address.
+public interface UserAuthRepository extends Repository<User, UUID> {
+    // Find the authentication details of a user by their email address, reading only the columns needed.
+    @Query("select new com.example.demo.auth.UserAuth(u.id, u.email, u.password, u.role) from User u where u.email = :email")
     UserAuth findByEmail(String email);
 }
@@ -0,0 +1,77 @@
+package com.example.demo.config;
+
+import com.example.demo.auth.UserAuth;
+import com.example.demo.post.Post;
+import com.example.demo.util.BoundedTtlCache;
+import com.example.demo.util.SerializedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Configuration class for the in-process caches.
+ * Each cache is a bean so that its metrics are bound to the meter registry.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Provides the cache of authentication details keyed by email.
+     *
+     * @param maxSize the maximum number of cached users.
+     * @param ttl     how long a cached user stays valid.
+     * @return the user authentication cache.
+     */
+    @Bean
+    public BoundedTtlCache<String, UserAuth> userAuthCache(
+            @Value("${application.cache.user-auth.max-size}") int maxSize,
+            @Value("${application.cache.user-auth.ttl}") Duration ttl) {
+        return new BoundedTtlCache<>("userAuth", maxSize, ttl);
+    }
+
+    /**
+     * Provides the cache of per-user token epochs.
+     * The TTL bounds how long another instance may keep accepting tokens after a revocation.
+     *
+     * @param maxSize the maximum number of cached epochs.
+     * @param ttl     how long a cached epoch stays valid.
+     * @return the token epoch cache.
+     */
+    @Bean
+    public BoundedTtlCache<UUID, Long> tokenEpochCache(
+            @Value("${application.cache.token-epoch.max-size}") int maxSize,
+            @Value("${application.cache.token-epoch.ttl}") Duration ttl) {
+        return new BoundedTtlCache<>("tokenEpoch", maxSize, ttl);
+    }
+
+    /**
+     * Provides the cache of posts keyed by ID.
+     *
+     * @param maxSize the maximum number of cached posts.
+     * @param ttl     how long a cached post stays valid.
+     * @return the post cache.
+     */
+    @Bean
+    public BoundedTtlCache<UUID, Post> postCache(
+            @Value("${application.cache.post.max-size}") int maxSize,
+            @Value("${application.cache.post.ttl}") Duration ttl) {
+        return new BoundedTtlCache<>("post", maxSize, ttl);
+    }
+
+    /**
+     * Provides the cache of serialized responses of the hot read endpoints.
+     *
+     * @param maxSize the maximum number of cached responses.
+     * @param ttl     how long a cached response stays valid.
+     * @return the response cache.
+     */
+    @Bean
+    public BoundedTtlCache<String, SerializedResponse> responseCache(
+            @Value("${application.cache.response.max-size}") int maxSize,
+            @Value("${application.cache.response.ttl}") Duration ttl) {
+        return new BoundedTtlCache<>("response", maxSize, ttl);
+    }
+}
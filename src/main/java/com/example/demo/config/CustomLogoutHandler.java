@@ -1,6 +1,7 @@
 package com.example.demo.config;
 
-import com.example.demo.jwt.Token;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpochService;
 import com.example.demo.jwt.TokenRepository;
 import com.example.demo.util.CookieUtils;
 import jakarta.servlet.http.Cookie;
@@ -16,14 +17,20 @@ import org.springframework.security.web.authentication.logout.LogoutHandler;
 @Configuration
 public class CustomLogoutHandler implements LogoutHandler {
 
+    private final JwtService jwtService;
+    private final TokenEpochService tokenEpochService;
     private final TokenRepository tokenRepository;
 
     /**
      * Constructor to inject dependencies.
      *
-     * @param tokenRepository Repository to manage tokens.
+     * @param jwtService        Service to verify the token being logged out.
+     * @param tokenEpochService Service to revoke the user's tokens.
+     * @param tokenRepository   Repository to mark the user's stored tokens as logged out.
      */
-    public CustomLogoutHandler(TokenRepository tokenRepository) {
+    public CustomLogoutHandler(JwtService jwtService, TokenEpochService tokenEpochService, TokenRepository tokenRepository) {
+        this.jwtService = jwtService;
+        this.tokenEpochService = tokenEpochService;
         this.tokenRepository = tokenRepository;
     }
 
@@ -48,13 +55,13 @@ public class CustomLogoutHandler implements LogoutHandler {
 
         // Extract the token from the header
         String token = authHeader.substring(7);
-        Token storedToken = tokenRepository.findByAccessToken(token).orElse(null);
 
-        // If a valid token is found, mark it as logged out and save it
-        if (storedToken != null) {
-            storedToken.setLoggedOut(true);
-            tokenRepository.save(storedToken);
-        }
+        // If the token is genuine, revoke the user's tokens by moving them to the next epoch, and flag the stored
+        // rows as well, so refresh token checks and the purge job see the same state as the epoch
+        jwtService.verify(token).ifPresent(verified -> {
+            tokenEpochService.revokeAll(verified.userId());
+            tokenRepository.logoutAllByUser(verified.userId());
+        });
 
         // Create and configure cookies to clear the access and refresh tokens
         Cookie refreshTokenCookie = CookieUtils.createSecureCookie("refreshToken", "");
@@ -1,6 +1,8 @@
 package com.example.demo.config;
 
+import com.example.demo.auth.LoginThrottle;
 import com.example.demo.filter.JwtAuthenticationFilter;
+import com.example.demo.filter.LoginThrottleFilter;
 import com.example.demo.user.UserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +20,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.LogoutFilter;
 
 /**
  * Security configuration class for setting up Spring Security.
@@ -29,6 +32,7 @@ public class SecurityConfig {
     private final UserService userService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomLogoutHandler logoutHandler;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Constructor to inject dependencies.
@@ -36,13 +40,16 @@ public class SecurityConfig {
      * @param userService             User service to handle user details.
      * @param jwtAuthenticationFilter JWT filter for authentication.
      * @param logoutHandler           Custom logout handler.
+     * @param loginThrottle           Throttle for authentication attempts.
      */
     public SecurityConfig(UserService userService,
                           JwtAuthenticationFilter jwtAuthenticationFilter,
-                          CustomLogoutHandler logoutHandler) {
+                          CustomLogoutHandler logoutHandler,
+                          LoginThrottle loginThrottle) {
         this.userService = userService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.logoutHandler = logoutHandler;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -61,9 +68,17 @@ public class SecurityConfig {
                                 .requestMatchers("/api/v1/mq").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/v1/auth/register").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/v1/auth").permitAll()
+                                // Carries a refresh token, which AuthService verifies itself; the filter only accepts access tokens
+                                .requestMatchers(HttpMethod.POST, "/api/v1/auth/refresh_token").permitAll()
+                                .requestMatchers(HttpMethod.POST, "/api/v1/auth/revoke").hasAuthority("ADMIN")
+                                .requestMatchers("/api/v1/posts/*/reaction").hasAnyAuthority("ADMIN", "USER")
+                                .requestMatchers(HttpMethod.GET, "/api/v1/posts/export").hasAuthority("ADMIN")
                                 .requestMatchers(HttpMethod.GET, "/api/v1/posts/**").permitAll()
                                 .requestMatchers(HttpMethod.DELETE, "/api/v1/**").hasAuthority("ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/api/v1/posts/bulk").hasAuthority("ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/api/v1/posts/**").hasAnyAuthority("ADMIN", "USER")
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                                 .requestMatchers("/v3/api-docs/**",
                                         "/swagger-ui/**",
                                         "/swagger-ui.html").permitAll()
@@ -71,6 +86,7 @@ public class SecurityConfig {
                 ).userDetailsService(userService)
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle), LogoutFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling(
                         e -> e.accessDeniedHandler(
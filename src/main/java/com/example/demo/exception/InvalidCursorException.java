@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructor to create an InvalidCursorException with a specific message.
+     *
+     * @param message the detail message.
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
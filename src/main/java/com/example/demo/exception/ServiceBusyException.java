@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+/**
+ * Exception thrown when a request is rejected because the service is saturated.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    /**
+     * Constructor to create a ServiceBusyException with a specific message.
+     *
+     * @param message the detail message.
+     */
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+/**
+ * Exception thrown when a client exceeds the allowed number of authentication attempts.
+ */
+public class TooManyAttemptsException extends RuntimeException {
+
+    /**
+     * Constructor to create a TooManyAttemptsException with a specific message.
+     *
+     * @param message the detail message.
+     */
+    public TooManyAttemptsException(String message) {
+        super(message);
+    }
+}
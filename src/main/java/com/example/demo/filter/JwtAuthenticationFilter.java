@@ -1,11 +1,14 @@
 package com.example.demo.filter;
 
+import com.example.demo.auth.UserAuth;
 import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.VerifiedToken;
 import com.example.demo.util.HeaderUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filter that handles JWT authentication for incoming HTTP requests.
@@ -25,16 +29,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final boolean stateless;
 
     /**
      * Constructor to initialize JwtAuthenticationFilter with required services.
      *
      * @param jwtService         the service to handle JWT operations.
      * @param userDetailsService the service to load user details.
+     * @param stateless          whether to build the principal from token claims instead of the database.
      */
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   @Value("${application.security.jwt.stateless:false}") boolean stateless) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
     }
 
     /**
@@ -64,17 +73,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Extract the JWT token from the Authorization header
         String token = authHeader.substring(7);
-        // Extract the username from the JWT token
-        String username = jwtService.extractUsername(token);
+        // Parse and verify the JWT token once; everything downstream works on the verified claims
+        Optional<VerifiedToken> verifiedToken = jwtService.verify(token);
 
-        // If the username is not null and the user is not already authenticated
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // If the token is genuine and the user is not already authenticated
+        if (verifiedToken.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken verified = verifiedToken.get();
 
-            // Load user details using the username
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // In stateless mode the principal is built from the verified claims; otherwise it is loaded by username
+            UserDetails userDetails = stateless
+                    ? new UserAuth(verified.userId(), verified.subject(), null, verified.role())
+                    : userDetailsService.loadUserByUsername(verified.subject());
 
             // Validate the JWT token
-            if (jwtService.isValid(token, userDetails)) {
+            boolean valid = stateless
+                    ? jwtService.isValidStateless(verified)
+                    : userDetails != null && jwtService.isValid(verified, userDetails);
+
+            if (valid) {
                 // Create an authentication token
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
@@ -87,6 +103,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // Set the authentication in the security context
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                // Expose the verified token so controllers can read its claims without parsing it again
+                request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
             }
         }
         // Continue the filter chain
@@ -0,0 +1,73 @@
+package com.example.demo.filter;
+
+import com.example.demo.auth.LoginThrottle;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Filter that rejects login, registration and token refresh attempts from client addresses over their limit.
+ * Runs before authentication so rejected attempts cost no database or BCrypt work.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final Set<String> THROTTLED_PATHS = Set.of(
+            "/api/v1/auth",
+            "/api/v1/auth/register",
+            "/api/v1/auth/refresh_token"
+    );
+
+    private final LoginThrottle loginThrottle;
+
+    /**
+     * Constructor to initialize LoginThrottleFilter.
+     *
+     * @param loginThrottle the throttle holding the per-address limits.
+     */
+    public LoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    /**
+     * Rejects the request with 429 if its client address is over the limit.
+     *
+     * @param request     the HTTP request.
+     * @param response    the HTTP response.
+     * @param filterChain the filter chain.
+     * @throws ServletException if an error occurs during filtering.
+     * @throws IOException      if an I/O error occurs during filtering.
+     */
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!loginThrottle.tryAcquireAddress(request.getRemoteAddr())) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Only POST requests to the authentication endpoints are throttled.
+     *
+     * @param request the HTTP request.
+     * @return true if the request should not be throttled.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !HttpMethod.POST.matches(request.getMethod()) || !THROTTLED_PATHS.contains(path);
+    }
+}
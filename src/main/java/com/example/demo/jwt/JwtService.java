@@ -1,18 +1,23 @@
 package com.example.demo.jwt;
 
+import com.example.demo.auth.Role;
 import com.example.demo.auth.UserAuth;
+import com.example.demo.util.HashUtils;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Function;
 
 /**
  * Service class for handling JWT operations such as token generation, validation, and extraction of claims.
@@ -21,6 +26,7 @@ import java.util.function.Function;
 public class JwtService {
 
     private final TokenRepository tokenRepository;
+    private final TokenEpochService tokenEpochService;
 
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
@@ -31,120 +37,121 @@ public class JwtService {
     @Value("${application.security.jwt.refresh-token-expiration}")
     private long refreshTokenExpire;
 
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
     /**
      * Constructor to initialize JwtService with required dependencies.
      *
-     * @param tokenRepository the repository to handle token persistence.
+     * @param tokenRepository   the repository to handle token persistence.
+     * @param tokenEpochService the service to handle per-user token revocation.
      */
-    public JwtService(TokenRepository tokenRepository) {
+    public JwtService(TokenRepository tokenRepository, TokenEpochService tokenEpochService) {
         this.tokenRepository = tokenRepository;
+        this.tokenEpochService = tokenEpochService;
     }
 
     /**
-     * Extracts the username from the JWT token.
-     *
-     * @param token the JWT token.
-     * @return the username extracted from the token.
+     * Builds the signing key and the JWT parser once, after the configuration values are injected.
+     * The parser is immutable and thread-safe, so it is shared by all requests.
      */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(secretKey));
+        this.jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     /**
-     * Validates the JWT token against the user details.
+     * Parses the JWT token and verifies its signature and expiry in a single pass.
      *
      * @param token the JWT token.
-     * @param user  the user details.
-     * @return true if the token is valid, false otherwise.
+     * @return the verified token, or empty if the token is malformed, forged, expired or lacks required claims,
+     * including the token type.
      */
-    public boolean isValid(String token, UserDetails user) {
-        String username = extractUsername(token);
-
-        // Check if the token is not logged out and matches the username
-        boolean validToken = tokenRepository
-                .findByAccessToken(token)
-                .map(t -> !t.isLoggedOut())
-                .orElse(false);
-
-        return (username.equals(user.getUsername())) && !isTokenExpired(token) && validToken;
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            String userId = claims.get("uuid", String.class);
+            String role = claims.get("role", String.class);
+            Long epoch = claims.get("epoch", Long.class);
+            String type = claims.get("typ", String.class);
+            if (claims.getSubject() == null || userId == null || role == null || type == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(
+                    token,
+                    claims.getSubject(),
+                    UUID.fromString(userId),
+                    Role.valueOf(role),
+                    claims.getIssuedAt(),
+                    claims.getExpiration(),
+                    epoch != null ? epoch : 0L,
+                    TokenType.fromClaim(type)
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     /**
-     * Validates the refresh token against the user details.
+     * Validates a verified access token against the user details.
+     * Revocation is checked against the user's cached token epoch, so no token lookup is needed.
+     * Refresh tokens are rejected, so they cannot be used as bearer tokens.
      *
-     * @param token the refresh token.
+     * @param token the verified access token.
      * @param user  the user details.
-     * @return true if the refresh token is valid, false otherwise.
+     * @return true if the token is a valid access token, false otherwise.
      */
-    public boolean isValidRefreshToken(String token, UserAuth user) {
-        String username = extractUsername(token);
-
-        // Check if the refresh token is not logged out and matches the username
-        boolean validRefreshToken = tokenRepository
-                .findByRefreshToken(token)
-                .map(t -> !t.isLoggedOut())
-                .orElse(false);
-
-        return (username.equals(user.getUsername())) && !isTokenExpired(token) && validRefreshToken;
+    public boolean isValid(VerifiedToken token, UserDetails user) {
+        return token.type() == TokenType.ACCESS
+                && token.subject().equals(user.getUsername())
+                && tokenEpochService.isCurrent(token);
     }
 
     /**
-     * Checks if the JWT token is expired.
+     * Validates a verified access token using only its claims and the user's cached token epoch.
+     * Refresh tokens are rejected, so they cannot be used as bearer tokens.
      *
-     * @param token the JWT token.
-     * @return true if the token is expired, false otherwise.
+     * @param token the verified access token.
+     * @return true if the token is an access token that has not been revoked, false otherwise.
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isValidStateless(VerifiedToken token) {
+        return token.type() == TokenType.ACCESS && tokenEpochService.isCurrent(token);
     }
 
     /**
-     * Extracts the expiration date from the JWT token.
+     * Validates a verified refresh token against the user details.
      *
-     * @param token the JWT token.
-     * @return the expiration date of the token.
+     * @param token the verified refresh token.
+     * @param user  the user details.
+     * @return true if the token is a valid refresh token, false otherwise.
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    public boolean isValidRefreshToken(VerifiedToken token, UserAuth user) {
+        // Access tokens cannot be exchanged for a new token pair
+        if (token.type() != TokenType.REFRESH) {
+            return false;
+        }
 
-    /**
-     * Extracts a specific claim from the JWT token.
-     *
-     * @param token    the JWT token.
-     * @param resolver the function to resolve the claim.
-     * @param <T>      the type of the claim.
-     * @return the extracted claim.
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = extractAllClaims(token);
-        return resolver.apply(claims);
-    }
+        // Check if the refresh token is not logged out and matches the username
+        boolean validRefreshToken = tokenRepository
+                .findByRefreshTokenDigest(HashUtils.sha256(token.token()))
+                .map(t -> !t.isLoggedOut())
+                .orElse(false);
 
-    /**
-     * Extracts the user ID from the JWT token.
-     *
-     * @param token the JWT token.
-     * @return the user ID extracted from the token.
-     */
-    public UUID extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        return UUID.fromString(claims.get("uuid", String.class));
+        return token.subject().equals(user.getUsername()) && tokenEpochService.isCurrent(token) && validRefreshToken;
     }
 
     /**
-     * Extracts all claims from the JWT token.
+     * Returns the refresh token lifetime, which bounds how long a stored token pair stays useful.
      *
-     * @param token the JWT token.
-     * @return the claims extracted from the token.
+     * @return the refresh token lifetime in milliseconds.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigninKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public long getRefreshTokenExpire() {
+        return refreshTokenExpire;
     }
 
     /**
@@ -154,7 +161,7 @@ public class JwtService {
      * @return the generated access token.
      */
     public String generateAccessToken(UserAuth user) {
-        return generateToken(user, accessTokenExpire);
+        return generateToken(user, TokenType.ACCESS, accessTokenExpire);
     }
 
     /**
@@ -164,35 +171,29 @@ public class JwtService {
      * @return the generated refresh token.
      */
     public String generateRefreshToken(UserAuth user) {
-        return generateToken(user, refreshTokenExpire);
+        return generateToken(user, TokenType.REFRESH, refreshTokenExpire);
     }
 
     /**
-     * Generates a JWT token for the given user with a specified expiration time.
+     * Generates a JWT token of the given type for the given user with a specified expiration time.
      *
      * @param user       the user details.
+     * @param type       the token type.
      * @param expireTime the expiration time in milliseconds.
      * @return the generated JWT token.
      */
-    private String generateToken(UserAuth user, long expireTime) {
+    private String generateToken(UserAuth user, TokenType type, long expireTime) {
         return Jwts
                 .builder()
+                .setId(UUID.randomUUID().toString()) // jti keeps tokens issued in the same second distinct
                 .setSubject(user.getEmail())
                 .claim("uuid", user.getId().toString())
                 .claim("role", user.getRole().name())
+                .claim("epoch", tokenEpochService.currentEpoch(user.getId()))
+                .claim("typ", type.claim())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expireTime))
-                .signWith(getSigninKey())
+                .signWith(signingKey)
                 .compact();
     }
-
-    /**
-     * Retrieves the signing key for JWT token generation and validation.
-     *
-     * @return the signing key.
-     */
-    private SecretKey getSigninKey() {
-        byte[] keyBytes = Decoders.BASE64URL.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
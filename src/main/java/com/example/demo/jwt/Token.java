@@ -1,15 +1,22 @@
 package com.example.demo.jwt;
 
-import com.example.demo.auth.UserAuth;
+import com.example.demo.user.User;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 /**
  * Entity representing a token used for authentication.
+ * Only fixed-width SHA-256 digests of the tokens are stored, never the tokens themselves.
  */
 @Entity
-@Table(name = "token")
+@Table(name = "token", indexes = {
+        @Index(name = "idx_token_user_id", columnList = "user_id"),
+        @Index(name = "idx_token_issued_at", columnList = "issued_at"),
+        @Index(name = "idx_token_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 public class Token {
@@ -18,13 +25,19 @@ public class Token {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id; // Unique identifier for the token.
 
-    private String accessToken; // The access token string.
+    @Column(name = "access_token_digest", length = 32, unique = true)
+    private byte[] accessTokenDigest; // SHA-256 digest of the access token.
 
-    private String refreshToken; // The refresh token string.
+    @Column(name = "refresh_token_digest", length = 32, unique = true)
+    private byte[] refreshTokenDigest; // SHA-256 digest of the refresh token.
 
     private boolean loggedOut; // Flag indicating if the token is logged out.
 
-    @ManyToOne
-    @JoinColumn(name = "user_id")
-    private UserAuth user; // The user associated with this token.
+    private LocalDateTime issuedAt; // Timestamp when the tokens were issued.
+
+    private LocalDateTime expiresAt; // Timestamp when the longer-lived refresh token expires.
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User user; // The user associated with this token.
 }
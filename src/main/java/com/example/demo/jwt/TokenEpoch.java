@@ -0,0 +1,29 @@
+package com.example.demo.jwt;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Entity holding the current token epoch of a user.
+ * Tokens carry the epoch they were issued in; bumping the epoch revokes every older token at once.
+ */
+@Entity
+@Table(name = "token_epoch")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenEpoch {
+
+    @Id
+    private UUID userId; // The user this epoch belongs to.
+
+    private long epoch; // The current epoch; tokens with a different epoch are revoked.
+}
@@ -0,0 +1,37 @@
+package com.example.demo.jwt;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface TokenEpochRepository extends JpaRepository<TokenEpoch, UUID> {
+
+    // Atomically move a user to the next epoch, returning the number of rows updated.
+    @Modifying
+    @Transactional
+    @Query("update TokenEpoch e set e.epoch = e.epoch + 1 where e.userId = :userId")
+    int incrementEpoch(UUID userId);
+
+    // Create an epoch row in epoch 0 for each of the given users that exists and has none yet, returning the number
+    // of rows inserted. IDs that do not belong to a user get no row.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into token_epoch (user_id, epoch)
+            select u.id, 0 from users u
+            where u.id in (:userIds) and not exists (select 1 from token_epoch e where e.user_id = u.id)""",
+            nativeQuery = true)
+    int createMissingEpochs(Collection<UUID> userIds);
+
+    // Atomically move several users to their next epoch, returning the number of rows updated.
+    @Modifying
+    @Transactional
+    @Query("update TokenEpoch e set e.epoch = e.epoch + 1 where e.userId in :userIds")
+    int incrementEpochs(Collection<UUID> userIds);
+}
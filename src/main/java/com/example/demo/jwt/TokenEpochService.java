@@ -0,0 +1,97 @@
+package com.example.demo.jwt;
+
+import com.example.demo.util.BoundedTtlCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service class for per-user token revocation.
+ * Each user has an epoch counter; a token is valid only while its "epoch" claim matches the current value.
+ * Epochs are persisted in the token_epoch table and cached in memory so validation needs no query.
+ */
+@Service
+public class TokenEpochService {
+
+    private final TokenEpochRepository tokenEpochRepository;
+    private final BoundedTtlCache<UUID, Long> tokenEpochCache;
+
+    /**
+     * Constructor to initialize TokenEpochService with required dependencies.
+     *
+     * @param tokenEpochRepository the repository to handle epoch persistence.
+     * @param tokenEpochCache      the in-memory cache of current epochs.
+     */
+    public TokenEpochService(TokenEpochRepository tokenEpochRepository, BoundedTtlCache<UUID, Long> tokenEpochCache) {
+        this.tokenEpochRepository = tokenEpochRepository;
+        this.tokenEpochCache = tokenEpochCache;
+    }
+
+    /**
+     * Returns the current epoch of a user. Users that never revoked their tokens are in epoch 0.
+     *
+     * @param userId the UUID of the user.
+     * @return the current epoch.
+     */
+    public long currentEpoch(UUID userId) {
+        return tokenEpochCache.get(userId, id -> tokenEpochRepository.findById(id)
+                .map(TokenEpoch::getEpoch)
+                .orElse(0L));
+    }
+
+    /**
+     * Checks whether a verified token was issued in the user's current epoch.
+     *
+     * @param token the verified token.
+     * @return true if the token has not been revoked, false otherwise.
+     */
+    public boolean isCurrent(VerifiedToken token) {
+        return token.epoch() == currentEpoch(token.userId());
+    }
+
+    /**
+     * Revokes every token issued to a user so far by moving the user to the next epoch.
+     *
+     * @param userId the UUID of the user.
+     * @return the new epoch.
+     */
+    public long revokeAll(UUID userId) {
+        if (tokenEpochRepository.incrementEpoch(userId) == 0) {
+            try {
+                tokenEpochRepository.save(new TokenEpoch(userId, 1));
+            } catch (DataIntegrityViolationException e) {
+                // Another request created the row first; bump it instead
+                tokenEpochRepository.incrementEpoch(userId);
+            }
+        }
+
+        long epoch = tokenEpochRepository.findById(userId).map(TokenEpoch::getEpoch).orElse(0L);
+        tokenEpochCache.put(userId, epoch);
+        return epoch;
+    }
+
+    /**
+     * Revokes every token issued to several users with one bulk insert and one bulk increment.
+     * Existing users that have no epoch row yet get one; IDs that do not belong to a user are ignored, so the
+     * table only holds rows of users that exist or were deleted (whose rows keep their old tokens revoked). Cost does not depend on how many tokens the users hold.
+     *
+     * @param userIds the UUIDs of the users.
+     */
+    public void revokeAll(Collection<UUID> userIds) {
+        try {
+            tokenEpochRepository.createMissingEpochs(userIds);
+        } catch (DataIntegrityViolationException e) {
+            // Another request created one of the rows first; the retry skips the rows that exist now
+            tokenEpochRepository.createMissingEpochs(userIds);
+        }
+        tokenEpochRepository.incrementEpochs(userIds);
+
+        Map<UUID, Long> epochs = new HashMap<>();
+        tokenEpochRepository.findAllById(userIds).forEach(e -> epochs.put(e.getUserId(), e.getEpoch()));
+        epochs.forEach(tokenEpochCache::put);
+    }
+}
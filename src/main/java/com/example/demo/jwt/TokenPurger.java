@@ -0,0 +1,107 @@
+package com.example.demo.jwt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scheduled housekeeping job that deletes logged-out and expired tokens.
+ * Rows are deleted in bounded chunks with a pause in between, so each delete holds its locks only briefly.
+ */
+@Component
+public class TokenPurger implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenPurger.class);
+
+    private final TokenRepository tokenRepository;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final long pauseMillis;
+
+    private final LongAdder rowsPurged = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    /**
+     * Constructor to initialize TokenPurger with required dependencies.
+     *
+     * @param tokenRepository the repository to handle token persistence.
+     * @param chunkSize       the maximum number of rows deleted per statement.
+     * @param maxChunks       the maximum number of chunks deleted per run.
+     * @param pauseMillis     the pause between two chunks in milliseconds.
+     */
+    public TokenPurger(TokenRepository tokenRepository,
+                       @Value("${application.token-purge.chunk-size}") int chunkSize,
+                       @Value("${application.token-purge.max-chunks}") int maxChunks,
+                       @Value("${application.token-purge.pause}") long pauseMillis) {
+        this.tokenRepository = tokenRepository;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * Deletes logged-out and expired tokens, one chunk at a time.
+     *
+     * @return the number of rows deleted in this run.
+     */
+    @Scheduled(fixedDelayString = "${application.token-purge.interval}",
+            initialDelayString = "${application.token-purge.interval}")
+    public int purge() {
+        long start = System.nanoTime();
+        int purged = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                List<Integer> ids = tokenRepository.findPurgeableIds(LocalDateTime.now(), PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                tokenRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            rowsPurged.add(purged);
+            runs.increment();
+            runNanos.add(elapsed);
+            logger.info("Purged {} tokens in {} ms", purged, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return purged;
+    }
+
+    /**
+     * Registers the purge metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("token.purge.rows", rowsPurged, LongAdder::sum)
+                .description("Tokens deleted by the purge job")
+                .register(registry);
+        FunctionTimer.builder("token.purge.duration", this,
+                        p -> p.runs.sum(), p -> p.runNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent purging tokens")
+                .register(registry);
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.demo.jwt;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,16 +16,22 @@ import java.util.UUID;
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
-    // Custom query to find all access tokens for a user that are not logged out.
-    @Query("""
-            select t from Token t inner join User u on t.user.id = u.id
-            where t.user.id = :userId and t.loggedOut = false
-            """)
-    List<Token> findAllAccessTokensByUser(UUID userId);
+    // Mark all tokens of a user that are not logged out as logged out, in a single statement.
+    @Modifying
+    @Transactional
+    @Query("update Token t set t.loggedOut = true where t.user.id = :userId and t.loggedOut = false")
+    int logoutAllByUser(UUID userId);
 
-    // Find a token by its access token string.
-    Optional<Token> findByAccessToken(String token);
+    // Mark all tokens of the given users that are not logged out as logged out, in a single statement.
+    @Modifying
+    @Transactional
+    @Query("update Token t set t.loggedOut = true where t.user.id in :userIds and t.loggedOut = false")
+    int logoutAllByUsers(Collection<UUID> userIds);
 
-    // Find a token by its refresh token string.
-    Optional<Token> findByRefreshToken(String token);
+    // Find IDs of tokens that are logged out or expired, oldest first.
+    @Query("select t.id from Token t where t.loggedOut = true or t.expiresAt < :now order by t.id")
+    List<Integer> findPurgeableIds(LocalDateTime now, Pageable pageable);
+
+    // Find a token by the SHA-256 digest of its refresh token.
+    Optional<Token> findByRefreshTokenDigest(byte[] refreshTokenDigest);
 }
@@ -0,0 +1,116 @@
+package com.example.demo.jwt;
+
+import com.example.demo.util.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off migration of the token table from raw JWT columns to SHA-256 digests.
+ * Runs at startup after the schema update has added the digest columns; it hashes legacy rows in chunks
+ * and then drops the raw access_token and refresh_token columns. Once they are gone it does nothing.
+ */
+@Component
+public class TokenStoreMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenStoreMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to initialize TokenStoreMigration with required dependencies.
+     *
+     * @param jdbcTemplate the JDBC template to run the migration statements.
+     */
+    public TokenStoreMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Hashes legacy token rows and drops the raw token columns.
+     *
+     * @param args the application arguments (not used).
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!hasColumn("access_token") || !hasColumn("refresh_token")) {
+            return;
+        }
+
+        // Identical legacy tokens (issued in the same second before tokens carried a jti) would collide on the
+        // unique digest columns, so only the first row of each keeps its digest and the rest are logged out.
+        Set<ByteBuffer> seen = new HashSet<>();
+        int migrated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList("""
+                    select id, access_token, refresh_token from token
+                    where access_token is not null or refresh_token is not null
+                    order by id
+                    limit ?
+                    """, BATCH_SIZE);
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                byte[] accessDigest = digestOnce((String) row.get("access_token"), seen);
+                byte[] refreshDigest = digestOnce((String) row.get("refresh_token"), seen);
+                boolean duplicate = (row.get("access_token") != null && accessDigest == null)
+                        || (row.get("refresh_token") != null && refreshDigest == null);
+                updates.add(new Object[]{accessDigest, refreshDigest, duplicate, row.get("id")});
+            }
+
+            jdbcTemplate.batchUpdate("""
+                    update token
+                    set access_token_digest = ?, refresh_token_digest = ?, logged_out = logged_out or ?,
+                        access_token = null, refresh_token = null
+                    where id = ?
+                    """, updates);
+            migrated += rows.size();
+        } while (rows.size() == BATCH_SIZE);
+
+        jdbcTemplate.execute("alter table token drop column access_token");
+        jdbcTemplate.execute("alter table token drop column refresh_token");
+        logger.info("Migrated {} token rows to digests and dropped the raw token columns", migrated);
+    }
+
+    /**
+     * Hashes a legacy token unless the same token was already hashed during this migration.
+     *
+     * @param token the raw token, possibly null.
+     * @param seen  the digests assigned so far.
+     * @return the digest, or null if the token is null or a duplicate.
+     */
+    private byte[] digestOnce(String token, Set<ByteBuffer> seen) {
+        if (token == null) {
+            return null;
+        }
+        byte[] digest = HashUtils.sha256(token);
+        return seen.add(ByteBuffer.wrap(digest)) ? digest : null;
+    }
+
+    /**
+     * Checks whether the token table still has the given column.
+     *
+     * @param column the column name.
+     * @return true if the column exists, false otherwise.
+     */
+    private boolean hasColumn(String column) {
+        Integer count = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.columns
+                where lower(table_name) = 'token' and lower(column_name) = ?
+                """, Integer.class, column);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.jwt;
+
+/**
+ * Purpose of a JWT, carried in its "typ" claim.
+ * Access and refresh tokens are otherwise signed with the same key and carry the same claims,
+ * so the type is what keeps a refresh token from being used as a bearer access token and vice versa.
+ */
+public enum TokenType {
+    ACCESS,
+    REFRESH;
+
+    /**
+     * Returns the value of the "typ" claim for this type.
+     *
+     * @return the claim value.
+     */
+    public String claim() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Parses the value of a "typ" claim.
+     *
+     * @param claim the claim value.
+     * @return the token type.
+     * @throws IllegalArgumentException if the value is not a known type.
+     */
+    public static TokenType fromClaim(String claim) {
+        return valueOf(claim.toUpperCase());
+    }
+}
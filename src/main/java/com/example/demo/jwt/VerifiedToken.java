@@ -0,0 +1,39 @@
+package com.example.demo.jwt;
+
+import com.example.demo.auth.Role;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A JWT whose signature and expiry have already been checked by {@link JwtService#verify(String)}.
+ * Carries the claims the application needs so callers never have to parse the token again.
+ */
+public record VerifiedToken(
+        // The compact token string as received from the client.
+        String token,
+
+        // The subject of the token (the user's email).
+        String subject,
+
+        // The user ID carried in the "uuid" claim.
+        UUID userId,
+
+        // The user role carried in the "role" claim.
+        Role role,
+
+        // Timestamp when the token was issued.
+        Date issuedAt,
+
+        // Timestamp when the token expires.
+        Date expiration,
+
+        // The revocation epoch the token was issued in.
+        long epoch,
+
+        // Whether this is an access or a refresh token, carried in the "typ" claim.
+        TokenType type) {
+
+    // Name of the request attribute under which the authentication filter stores the verified token.
+    public static final String REQUEST_ATTRIBUTE = "com.example.demo.jwt.VerifiedToken";
+}
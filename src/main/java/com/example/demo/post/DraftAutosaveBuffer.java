@@ -0,0 +1,239 @@
+package com.example.demo.post;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for autosaved drafts.
+ * Only the latest state per draft is kept; pending drafts are written periodically in one batch, so a draft is
+ * written at most once per flush interval however often the editor saves it. A draft is also written right away
+ * before its post is edited or published, and all pending drafts are written on shutdown.
+ * Writes only apply to posts that are still drafts, so a late autosave never changes a published post.
+ * When the buffer is full, autosaves of drafts not yet in it are written directly.
+ */
+@Component
+public class DraftAutosaveBuffer implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DraftAutosaveBuffer.class);
+
+    private static final String UPDATE_DRAFT = """
+            update posts set title = coalesce(?, title), content = coalesce(?, content), updated_at = ?
+            where id = ? and status = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCache postCache;
+    private final int maxPending;
+
+    // Latest unwritten state per draft post ID.
+    private final Map<UUID, PendingDraft> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * Latest autosaved state of a draft.
+     *
+     * @param author     the UUID of the author who saved it.
+     * @param title      the title, or null if unchanged.
+     * @param content    the content, or null if unchanged.
+     * @param receivedAt the time the oldest unwritten autosave of this draft was received, in milliseconds.
+     */
+    private record PendingDraft(UUID author, String title, String content, long receivedAt) {
+    }
+
+    /**
+     * Constructor to initialize DraftAutosaveBuffer with required dependencies.
+     *
+     * @param jdbcTemplate the JDBC template to write the drafts.
+     * @param postCache    the post cache to invalidate for written drafts.
+     * @param maxPending   the maximum number of drafts with pending changes.
+     */
+    public DraftAutosaveBuffer(JdbcTemplate jdbcTemplate,
+                               PostCache postCache,
+                               @Value("${application.drafts.max-pending}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postCache = postCache;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Checks whether a draft has pending changes saved by the given author,
+     * in which case the author was already checked when the changes were recorded.
+     *
+     * @param postId the UUID of the draft post.
+     * @param author the UUID of the author.
+     * @return true if the draft has pending changes of the author, false otherwise.
+     */
+    public boolean isPendingFor(UUID postId, UUID author) {
+        PendingDraft draft = pending.get(postId);
+        return draft != null && draft.author().equals(author);
+    }
+
+    /**
+     * Records an autosave of a draft, replacing the fields it sets.
+     *
+     * @param postId the UUID of the draft post.
+     * @param author the UUID of the author saving it.
+     * @param update the autosaved fields.
+     */
+    public void record(UUID postId, UUID author, DraftUpdate update) {
+        received.increment();
+        if (pending.size() >= maxPending && !pending.containsKey(postId)) {
+            write(List.of(Map.entry(postId, new PendingDraft(author, update.title(), update.content(), 0))));
+            return;
+        }
+        PendingDraft next = new PendingDraft(author, update.title(), update.content(), System.currentTimeMillis());
+        pending.merge(postId, next, (current, latest) -> new PendingDraft(latest.author(),
+                latest.title() != null ? latest.title() : current.title(),
+                latest.content() != null ? latest.content() : current.content(),
+                current.receivedAt()));
+    }
+
+    /**
+     * Writes the pending changes of one draft, e.g. before it is edited or published.
+     *
+     * @param postId the UUID of the draft post.
+     */
+    public synchronized void flush(UUID postId) {
+        PendingDraft draft = pending.remove(postId);
+        if (draft == null) {
+            return;
+        }
+        try {
+            write(List.of(Map.entry(postId, draft)));
+        } catch (RuntimeException e) {
+            pending.putIfAbsent(postId, draft); // Kept for the next flush unless saved again meanwhile
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the pending changes of a draft, e.g. when it is deleted.
+     *
+     * @param postId the UUID of the draft post.
+     */
+    public void discard(UUID postId) {
+        pending.remove(postId);
+    }
+
+    /**
+     * Drops the pending changes of a draft once its deletion is committed.
+     *
+     * @param event the deletion event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(PostDeletedEvent event) {
+        discard(event.postId());
+    }
+
+    /**
+     * Writes the pending drafts to the database as one batch.
+     *
+     * @return the number of drafts written.
+     */
+    @Scheduled(fixedDelayString = "${application.drafts.flush-interval}",
+            initialDelayString = "${application.drafts.flush-interval}")
+    public synchronized int flush() {
+        List<Map.Entry<UUID, PendingDraft>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, PendingDraft> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush {} drafts, retrying on the next flush", batch.size(), e);
+            return 0;
+        }
+
+        // Drafts saved again meanwhile keep their newer state for the next flush
+        for (Map.Entry<UUID, PendingDraft> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Flushes the remaining drafts when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private void write(List<Map.Entry<UUID, PendingDraft>> drafts) {
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_DRAFT, drafts, drafts.size(), (statement, entry) -> {
+            statement.setString(1, entry.getValue().title());
+            statement.setString(2, entry.getValue().content());
+            statement.setTimestamp(3, updatedAt);
+            statement.setObject(4, entry.getKey());
+            statement.setInt(5, Status.DRAFT.ordinal()); // Mapped as ordinal by Post
+        });
+        for (Map.Entry<UUID, PendingDraft> entry : drafts) {
+            postCache.invalidate(entry.getKey());
+        }
+        written.add(drafts.size());
+    }
+
+    /**
+     * Returns how long the oldest pending autosave has been waiting to be written.
+     *
+     * @return the flush lag in seconds, 0 if nothing is pending.
+     */
+    public double flushLagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingDraft draft : pending.values()) {
+            oldest = Math.min(oldest, draft.receivedAt());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(0, (System.currentTimeMillis() - oldest) / 1000.0);
+    }
+
+    public int pendingDrafts() {
+        return pending.size();
+    }
+
+    /**
+     * Registers the buffer metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("posts.drafts.pending", this, DraftAutosaveBuffer::pendingDrafts)
+                .description("Drafts with autosaved changes not yet written")
+                .register(registry);
+        Gauge.builder("posts.drafts.flush.lag", this, DraftAutosaveBuffer::flushLagSeconds)
+                .description("Age of the oldest autosave not yet written")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("posts.drafts.autosaves", received, LongAdder::sum)
+                .description("Draft autosaves received")
+                .register(registry);
+        FunctionCounter.builder("posts.drafts.writes", written, LongAdder::sum)
+                .description("Draft rows written to the database")
+                .register(registry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.post;
+
+/**
+ * Autosaved state of a draft post. Fields left null keep their previous value.
+ */
+public record DraftUpdate(
+        // Current title of the draft.
+        String title,
+
+        // Current content of the draft.
+        String content) {
+}
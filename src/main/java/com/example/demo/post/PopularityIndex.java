@@ -0,0 +1,277 @@
+package com.example.demo.post;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * In-memory ranking of the most popular posts by likes minus dislikes.
+ * Holds at most capacity posts, seeded from the score index of post_stats and kept up to date from reaction events,
+ * so reading the top posts does not depend on the size of the posts table.
+ * Reactions to indexed posts are applied in memory. Posts outside the index whose score rose are collected and
+ * their scores read in one query per scheduled check, so such a post may enter the index up to a check interval late.
+ * Posts outside the index may overtake indexed ones whose score dropped; the index therefore tracks
+ * a ceiling for the scores outside it; when too few entries are at or above that ceiling, the indexed ranking
+ * is served as is and the scheduler is asked to reseed. Reseeds only run on the scheduler, never on a request.
+ * A periodic reseed also picks up reactions recorded by other instances.
+ */
+@Component
+public class PopularityIndex {
+
+    private static final Comparator<PostScore> RANKING = Comparator.comparingLong(PostScore::score).reversed()
+            .thenComparing(PostScore::postId);
+
+    private final PostRepository postRepository;
+    private final int capacity;
+    private final long reseedInterval;
+
+    // Indexed posts in ranking order, and their scores by post ID; both guarded by this.
+    private final TreeSet<PostScore> ranking = new TreeSet<>(RANKING);
+    private final Map<UUID, Long> scores = new HashMap<>();
+
+    // Highest score any post outside the index may have; Long.MIN_VALUE if every post is indexed.
+    private long ceiling = Long.MIN_VALUE;
+    private boolean seeded;
+    private long seededAt;
+    private boolean reseedRequested;
+
+    // Posts outside the index whose score rose since the last check; guarded by this.
+    private final Set<UUID> risen = new HashSet<>();
+
+    // Posts whose score changed while a reseed reads the database, read again once the rebuilt index is in place;
+    // null while no reseed runs.
+    private Set<UUID> changedDuringReseed;
+
+    /**
+     * Constructor to initialize PopularityIndex with required dependencies.
+     *
+     * @param postRepository the repository to read post scores.
+     * @param capacity       the maximum number of posts held in the index.
+     * @param reseedInterval the time between periodic reseeds in milliseconds.
+     */
+    public PopularityIndex(PostRepository postRepository,
+                           @Value("${application.popular.capacity}") int capacity,
+                           @Value("${application.popular.reseed-interval}") long reseedInterval) {
+        this.postRepository = postRepository;
+        this.capacity = capacity;
+        this.reseedInterval = reseedInterval;
+    }
+
+    /**
+     * Reseeds the index if it was never seeded, a reseed was requested or the reseed interval has passed;
+     * otherwise admits the posts outside the index whose score rose since the last check.
+     */
+    @Scheduled(fixedDelayString = "${application.popular.check-interval}")
+    public void reseedIfDue() {
+        boolean due;
+        Set<UUID> candidates;
+        synchronized (this) {
+            due = !seeded || reseedRequested || System.currentTimeMillis() - seededAt >= reseedInterval;
+            candidates = new HashSet<>(risen);
+            risen.clear();
+        }
+        if (due) {
+            reseed();
+        } else if (!candidates.isEmpty()) {
+            // Posts deleted meanwhile are not found and stay outside
+            List<PostScore> current = postRepository.findScoresByIdIn(candidates);
+            synchronized (this) {
+                for (PostScore score : current) {
+                    admit(score.postId(), score.score());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database.
+     * Reactions, offers and deletions seen while the ranking is read may or may not be part of it,
+     * so the scores of those posts are read again and applied to the rebuilt index.
+     */
+    public void reseed() {
+        synchronized (this) {
+            changedDuringReseed = new HashSet<>();
+            risen.clear(); // Read by the reseed along with all other scores
+        }
+        try {
+            List<PostScore> top = postRepository.findTopScores(PageRequest.of(0, capacity + 1));
+            Set<UUID> changed;
+            synchronized (this) {
+                ranking.clear();
+                scores.clear();
+                for (PostScore score : top.subList(0, Math.min(capacity, top.size()))) {
+                    ranking.add(score);
+                    scores.put(score.postId(), score.score());
+                }
+                ceiling = top.size() > capacity ? top.get(capacity).score() : Long.MIN_VALUE;
+                seeded = true;
+                seededAt = System.currentTimeMillis();
+                reseedRequested = false;
+                changed = takeChangedDuringReseed();
+            }
+
+            while (!changed.isEmpty()) {
+                List<PostScore> current = postRepository.findScoresByIdIn(changed);
+                synchronized (this) {
+                    Set<UUID> deleted = new HashSet<>(changed);
+                    for (PostScore score : current) {
+                        deleted.remove(score.postId());
+                        admit(score.postId(), score.score());
+                    }
+                    for (UUID postId : deleted) {
+                        evict(postId);
+                    }
+                    changed = takeChangedDuringReseed();
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                reseedRequested = true;
+            }
+            throw e;
+        } finally {
+            synchronized (this) {
+                changedDuringReseed = null;
+            }
+        }
+    }
+
+    // Returns the posts changed so far and keeps recording further changes if there were any.
+    private Set<UUID> takeChangedDuringReseed() {
+        Set<UUID> changed = changedDuringReseed;
+        changedDuringReseed = changed.isEmpty() ? null : new HashSet<>();
+        return changed;
+    }
+
+    private void noteChange(UUID postId) {
+        if (changedDuringReseed != null) {
+            changedDuringReseed.add(postId);
+        }
+    }
+
+    /**
+     * Returns the IDs of the most popular posts, most popular first, without reading the database.
+     * If the order may be off because an indexed post dropped below the ceiling, a reseed is requested.
+     *
+     * @param limit the maximum number of posts, capped at the index capacity.
+     * @return the post IDs.
+     */
+    public synchronized List<UUID> top(int limit) {
+        int count = Math.max(0, Math.min(limit, capacity));
+        List<UUID> ids = ranked(count, ceiling);
+        if (ids.size() == count || ceiling == Long.MIN_VALUE) {
+            return ids;
+        }
+
+        // Too few entries are known to be in order; serve the index as is until the scheduler has reseeded it
+        reseedRequested = true;
+        return ranked(count, Long.MIN_VALUE);
+    }
+
+    private List<UUID> ranked(int count, long floor) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (PostScore entry : ranking) {
+            if (ids.size() == count || entry.score() < floor) {
+                break;
+            }
+            ids.add(entry.postId());
+        }
+        return ids;
+    }
+
+    /**
+     * Applies a change of the like and dislike counters once it is committed.
+     * The absolute score of a post outside the index is unknown here; if it rose, the post is read by the next
+     * scheduled check. If more posts rose than the index holds, a reseed is requested instead.
+     *
+     * @param event the reaction event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReaction(PostReactionEvent event) {
+        long delta = event.likes() - event.dislikes();
+        if (delta == 0) {
+            return;
+        }
+        noteChange(event.postId());
+        Long current = scores.get(event.postId());
+        if (current != null) {
+            place(event.postId(), current + delta);
+        } else if (delta > 0 && risen.add(event.postId()) && risen.size() > capacity) {
+            risen.clear();
+            reseedRequested = true;
+        }
+    }
+
+    /**
+     * Offers a post with its current score, e.g. a newly created post.
+     *
+     * @param postId the UUID of the post.
+     * @param score  the current score of the post.
+     */
+    public synchronized void offer(UUID postId, long score) {
+        noteChange(postId);
+        admit(postId, score);
+    }
+
+    private void admit(UUID postId, long score) {
+        if (scores.containsKey(postId)) {
+            place(postId, score);
+        } else if (ranking.size() < capacity) {
+            place(postId, score);
+        } else if (score > ranking.last().score()) {
+            place(postId, score);
+            PostScore evicted = ranking.pollLast();
+            scores.remove(evicted.postId());
+            ceiling = Math.max(ceiling, evicted.score());
+        } else {
+            ceiling = Math.max(ceiling, score);
+        }
+    }
+
+    /**
+     * Removes a deleted post from the index once the delete is committed.
+     *
+     * @param event the deletion event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(PostDeletedEvent event) {
+        remove(event.postId());
+    }
+
+    /**
+     * Removes a deleted post from the index.
+     *
+     * @param postId the UUID of the post.
+     */
+    public synchronized void remove(UUID postId) {
+        noteChange(postId);
+        evict(postId);
+    }
+
+    private void evict(UUID postId) {
+        Long score = scores.remove(postId);
+        if (score != null) {
+            ranking.remove(new PostScore(postId, score));
+        }
+    }
+
+    private void place(UUID postId, long score) {
+        Long previous = scores.put(postId, score);
+        if (previous != null) {
+            ranking.remove(new PostScore(postId, previous));
+        }
+        ranking.add(new PostScore(postId, score));
+    }
+}
@@ -7,6 +7,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SecondaryRow;
 import org.springframework.data.annotation.CreatedDate;
 
 import java.time.LocalDateTime;
@@ -15,13 +19,26 @@ import java.util.UUID;
 
 /**
  * Entity representing a blog post.
+ * The frequently updated counters live in the narrow post_stats table, so counter updates never rewrite the post row.
+ * Every post has its post_stats row, so the table is inner-joined and queries ordered by a counter can start from it.
+ * Edits are guarded by the version column, so concurrent edits of the same version cannot overwrite each other.
  */
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_posts_author_created_at_id", columnList = "author, created_at, id")
+})
+@DynamicUpdate
+@SecondaryTable(name = "post_stats", pkJoinColumns = @PrimaryKeyJoinColumn(name = "post_id"),
+        indexes = {
+                @Index(name = "idx_post_stats_hot_score", columnList = "hot_score, post_id"),
+                @Index(name = "idx_post_stats_score", columnList = "score, post_id")
+        })
+@SecondaryRow(table = "post_stats", optional = false)
 public class Post {
 
     @Id
@@ -42,13 +59,38 @@ public class Post {
 
     private boolean commentsEnabled; // Flag indicating if comments are enabled for the post.
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version; // Version of the post, incremented by every edit.
+
+    // Counters are only ever changed by targeted updates of post_stats, never by saving the entity.
+    @Column(table = "post_stats", nullable = false, updatable = false)
     private Long likes; // Number of likes for the post.
 
+    @Column(table = "post_stats", nullable = false, updatable = false)
     private Long dislikes; // Number of dislikes for the post.
 
+    @Column(table = "post_stats", nullable = false, updatable = false)
     private Long views; // Number of views for the post.
 
+    @ColumnDefault("0")
+    @Column(table = "post_stats", nullable = false, updatable = false)
+    private Long score; // Popularity score of the post, likes minus dislikes, updated together with the counters.
+
+    @ColumnDefault("0")
+    @Column(table = "post_stats", nullable = false, updatable = false)
+    private Long uniqueViewers; // Estimated number of distinct viewers of the post, see UniqueViewerCounter.
+
+    @ColumnDefault("0")
+    @Column(table = "post_stats", nullable = false, updatable = false)
+    private Double hotScore; // Time-decayed trending score of the post, see TrendingScores.
+
+    @Column(table = "post_stats", name = "updated_at", updatable = false)
+    private LocalDateTime statsUpdatedAt; // Timestamp when the counters or the score of the post last changed.
+
     @ElementCollection
+    @BatchSize(size = 100) // Loads the images of a whole page in one query
     @CollectionTable(name = "post_images", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "image")
     private List<String> images; // List of image URLs associated with the post.
@@ -57,16 +99,30 @@ public class Post {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt; // Timestamp when the post was created.
 
+    private LocalDateTime updatedAt; // Timestamp when the post was last edited.
+
     /**
      * Method to set default values before persisting the entity.
      */
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.hotScore = TrendingScores.score(0, 0, 0, this.createdAt);
         this.dislikes = 0L;
         this.likes = 0L;
+        this.score = 0L;
         this.views = 0L;
+        this.uniqueViewers = 0L;
+        this.statsUpdatedAt = this.createdAt;
         this.visibility = true;
         this.status = Status.PUBLISHED;
     }
+
+    /**
+     * Method to set the updatedAt timestamp before updating the entity.
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,97 @@
+package com.example.demo.post;
+
+import com.example.demo.util.BoundedTtlCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Read-through cache of posts by ID, including their images.
+ * Every write to a post or its counters invalidates its entry once the write is committed, so the cache only
+ * serves stale data while such a write is in flight; the TTL bounds the staleness caused by other instances.
+ * Invalidations are passed on to the cached serialized responses.
+ * Cached posts are shared between requests and must not be modified.
+ */
+@Component
+public class PostCache {
+
+    private final PostRepository postRepository;
+    private final BoundedTtlCache<UUID, Post> postCache;
+    private final PostResponseCache postResponseCache;
+
+    /**
+     * Constructor to initialize PostCache with required dependencies.
+     *
+     * @param postRepository the repository to load posts on a miss.
+     * @param postCache         the underlying bounded cache.
+     * @param postResponseCache the cache of serialized post responses.
+     */
+    public PostCache(PostRepository postRepository, BoundedTtlCache<UUID, Post> postCache,
+                     PostResponseCache postResponseCache) {
+        this.postRepository = postRepository;
+        this.postCache = postCache;
+        this.postResponseCache = postResponseCache;
+    }
+
+    /**
+     * Returns a post, loading it with its images in one query on a miss.
+     *
+     * @param id the UUID of the post.
+     * @return the post, or null if not found.
+     */
+    public Post get(UUID id) {
+        return postCache.get(id, key -> postRepository.findWithImagesById(key).orElse(null));
+    }
+
+    /**
+     * Returns a post only if it is cached, without loading it.
+     *
+     * @param id the UUID of the post.
+     * @return the cached post, or null if absent or expired.
+     */
+    public Post getIfCached(UUID id) {
+        return postCache.get(id);
+    }
+
+    /**
+     * Invalidates a post and the cached listings after it was created, edited, deleted or reacted to.
+     *
+     * @param id the UUID of the post.
+     */
+    public void invalidate(UUID id) {
+        postCache.invalidate(id);
+        postResponseCache.invalidate(id);
+    }
+
+    /**
+     * Invalidates a post after its view counters or trending score changed.
+     * The cached listings are kept: these changes do not add, remove or reorder the posts they contain.
+     *
+     * @param id the UUID of the post.
+     */
+    public void invalidateCounters(UUID id) {
+        postCache.invalidate(id);
+        postResponseCache.invalidatePost(id);
+    }
+
+    /**
+     * Invalidates a post once its reaction change is committed.
+     *
+     * @param event the reaction event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReaction(PostReactionEvent event) {
+        invalidate(event.postId());
+    }
+
+    /**
+     * Invalidates a post once its deletion is committed.
+     *
+     * @param event the deletion event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(PostDeletedEvent event) {
+        invalidate(event.postId());
+    }
+}
@@ -1,16 +1,31 @@
 package com.example.demo.post;
 
-import com.example.demo.jwt.JwtService;
+import com.example.demo.auth.Role;
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.jwt.VerifiedToken;
 import com.example.demo.util.CustomApiResponse;
-import com.example.demo.util.HeaderUtils;
+import com.example.demo.util.EntityTags;
+import com.example.demo.util.SerializedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,34 +37,158 @@ import java.util.UUID;
 public class PostController {
 
     private final PostService postService;
-    private final JwtService jwtService;
+    private final PostImportService postImportService;
+    private final PostExportService postExportService;
+    private final PostResponseCache postResponseCache;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructor to initialize PostController with required dependencies.
      *
-     * @param postService the service to handle post-related operations.
-     * @param jwtService  the service to handle JWT operations.
+     * @param postService       the service to handle post-related operations.
+     * @param postImportService the service to import posts in bulk.
+     * @param postExportService the service to export all posts.
+     * @param postResponseCache the cache of serialized post responses.
+     * @param objectMapper      the object mapper to write streamed results.
      */
-    public PostController(PostService postService, JwtService jwtService) {
+    public PostController(PostService postService, PostImportService postImportService,
+                          PostExportService postExportService, PostResponseCache postResponseCache,
+                          ObjectMapper objectMapper) {
         this.postService = postService;
-        this.jwtService = jwtService;
+        this.postImportService = postImportService;
+        this.postExportService = postExportService;
+        this.postResponseCache = postResponseCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Retrieves a post by its ID.
+     * The serialized post is cached, so repeated reads send the same bytes without serializing the post again.
+     * Conditional requests are answered from the entity tag and last modification time alone, before the post
+     * is loaded; a revalidated view still counts as a view. A full response carries the entity tag of the state
+     * its body was serialized from.
      *
-     * @param id the UUID of the post.
-     * @return the post with the specified ID.
+     * @param id         the UUID of the post.
+     * @param token      the verified JWT of the caller, if any.
+     * @param request    the HTTP request, used to identify anonymous viewers.
+     * @param response   the HTTP response.
+     * @param webRequest the same request, used to evaluate its preconditions.
+     * @return the post with the specified ID, as JSON, or no body if the client's copy is current.
      */
     @Operation(summary = "Get a post by ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Post found"),
+            @ApiResponse(responseCode = "200", description = "Post found", content =
+            @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
+            @ApiResponse(responseCode = "304", description = "Post not modified"),
             @ApiResponse(responseCode = "404", description = "Post not found")
     })
     @GetMapping("/{id}")
-    public Post getPostById(@PathVariable UUID id) {
-        postService.viewPost(id); // Increment the view count for the post.
-        return postService.getPostById(id);
+    public ResponseEntity<byte[]> getPostById(@PathVariable UUID id,
+                                              @RequestAttribute(name = VerifiedToken.REQUEST_ATTRIBUTE, required = false) VerifiedToken token,
+                                              HttpServletRequest request,
+                                              HttpServletResponse response,
+                                              WebRequest webRequest) {
+        PostValidator validator = postService.getPostValidator(id);
+        if (validator == null) {
+            return send(null, request);
+        }
+        varyByEncoding(response);
+        if (webRequest.checkNotModified(eTagFor(validator.eTag(), request), validator.lastModified())) {
+            postService.viewPost(id, viewerOf(token, request));
+            return null; // The status and validators are already set on the response
+        }
+        SerializedResponse post = postResponseCache.post(id, validator.eTag(), () -> postService.getPostById(id));
+        if (post != null) {
+            postService.viewPost(id, viewerOf(token, request)); // Increment the view count for the post.
+        }
+        return send(post, request);
+    }
+
+    /**
+     * Builds a response from a serialized body, sending the compressed body to clients that accept gzip.
+     * The entity tag of the body replaces any tag set by an earlier precondition check.
+     *
+     * @param body    the serialized body, or null for an empty response.
+     * @param request the HTTP request.
+     * @return a response entity whose body is written as is.
+     */
+    private ResponseEntity<byte[]> send(SerializedResponse body, HttpServletRequest request) {
+        if (body == null) {
+            return ResponseEntity.ok().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTagFor(body.eTag(), request))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzip() != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    /**
+     * Marks a response as varying by Accept-Encoding before its precondition check, since the entity tag depends
+     * on it; a 304 response must carry the same Vary header as the full response it revalidates.
+     */
+    private void varyByEncoding(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Returns the entity tag of the response to a request: clients that accept gzip get the tag of the gzip-coded
+     * variant, even for bodies too small to be compressed, since the body is not known before the precondition check.
+     */
+    private String eTagFor(String eTag, HttpServletRequest request) {
+        return acceptsGzip(request) ? EntityTags.gzip(eTag) : eTag;
+    }
+
+    /**
+     * Checks whether the Accept-Encoding header allows gzip: gzip (or x-gzip) is listed with a non-zero q-value,
+     * or it is not listed and "*" has a non-zero q-value.
+     */
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0; // A malformed weight does not allow the coding
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return (gzip >= 0 ? gzip : any) > 0;
+    }
+
+    /**
+     * Identifies the viewer of a post: the user ID for authenticated callers,
+     * otherwise a fingerprint of the client address and user agent.
+     *
+     * @param token   the verified JWT of the caller, if any.
+     * @param request the HTTP request.
+     * @return the viewer identifier.
+     */
+    private String viewerOf(VerifiedToken token, HttpServletRequest request) {
+        if (token != null) {
+            return "user:" + token.userId();
+        }
+        return "client:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
     }
 
     /**
@@ -70,6 +209,7 @@ public class PostController {
 
     /**
      * Updates a post by its ID.
+     * The updated post must carry the version of the post it was edited from.
      *
      * @param id          the UUID of the post.
      * @param updatedPost the updated post data.
@@ -78,7 +218,9 @@ public class PostController {
     @Operation(summary = "Update a post by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post updated successfully"),
-            @ApiResponse(responseCode = "400", description = "Post not found")
+            @ApiResponse(responseCode = "400", description = "Post not found"),
+            @ApiResponse(responseCode = "409", description = "Post was modified by another request"),
+            @ApiResponse(responseCode = "428", description = "Version is missing")
     })
     @PreAuthorize("hasAuthority('ADMIN') || #updatedPost.author == principal.id")
     @PutMapping("/{id}")
@@ -86,11 +228,54 @@ public class PostController {
         return postService.updatePost(id, updatedPost);
     }
 
+    /**
+     * Applies a partial update to a post by its ID.
+     * Only the supplied fields are changed; the patch must carry the version of the post it was made against.
+     *
+     * @param id    the UUID of the post.
+     * @param patch the fields to change and the version of the post.
+     * @param token the verified JWT of the caller.
+     * @return a response entity containing the result of the update operation.
+     */
+    @Operation(summary = "Partially update a post by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Post updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Post not found or invalid patch"),
+            @ApiResponse(responseCode = "403", description = "Not the author of the post"),
+            @ApiResponse(responseCode = "409", description = "Post was modified by another request")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<CustomApiResponse> patchPost(@PathVariable UUID id, @RequestBody PostPatch patch,
+                                                       @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.patchPost(id, patch, token.userId(), token.role() == Role.ADMIN);
+    }
+
+    /**
+     * Autosaves a draft post by its ID.
+     * Meant to be called by the editor every few seconds; the changes are written to the database in the background.
+     *
+     * @param id    the UUID of the draft post.
+     * @param draft the autosaved fields.
+     * @param token the verified JWT of the caller.
+     * @return a response entity containing the result of the autosave.
+     */
+    @Operation(summary = "Autosave a draft post by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Draft saved"),
+            @ApiResponse(responseCode = "400", description = "Draft not found or invalid draft"),
+            @ApiResponse(responseCode = "403", description = "Not the author of the draft")
+    })
+    @PutMapping("/{id}/draft")
+    public ResponseEntity<CustomApiResponse> autosaveDraft(@PathVariable UUID id, @RequestBody DraftUpdate draft,
+                                                           @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.autosaveDraft(id, draft, token.userId());
+    }
+
     /**
      * Creates a new post.
      *
-     * @param post    the post data.
-     * @param request the HTTP request containing the authorization header.
+     * @param post  the post data.
+     * @param token the verified JWT of the caller.
      * @return the created post.
      */
     @Operation(summary = "Create a new post")
@@ -100,34 +285,96 @@ public class PostController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PostMapping
-    public Post createPost(@RequestBody Post post, HttpServletRequest request) {
-        String authHeader = HeaderUtils.getAuthHeader(request);
-        String token = authHeader.substring(7); // Extract the token from the authorization header.
-        post.setAuthor(jwtService.extractUserId(token)); // Set the author of the post using the extracted user ID.
+    public Post createPost(@RequestBody Post post,
+                           @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        post.setAuthor(token.userId()); // Set the author of the post using the verified user ID.
         return postService.createPost(post);
     }
 
     /**
-     * Retrieves a post by its author.
+     * Imports posts in bulk from a JSON array or newline-delimited JSON.
+     * Streams one result per post back as newline-delimited JSON while the import runs.
+     *
+     * @param request  the HTTP request carrying the posts.
+     * @param response the HTTP response the results are written to.
+     * @param token    the verified JWT of the caller, the author of posts that do not name one.
+     * @throws IOException if the request cannot be read or the response cannot be written.
+     */
+    @Operation(summary = "Import posts in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed, one result per post"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importPosts(HttpServletRequest request, HttpServletResponse response,
+                            @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+        try {
+            postImportService.importPosts(request.getInputStream(), token.userId(), result -> {
+                try {
+                    output.write(objectMapper.writeValueAsBytes(result));
+                    output.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.flush();
+    }
+
+    /**
+     * Exports all posts as newline-delimited JSON, streamed while they are read from the database.
+     *
+     * @param response the HTTP response the posts are written to.
+     * @throws IOException if the response cannot be written.
+     */
+    @Operation(summary = "Export all posts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts exported, one per line"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportPosts(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        postExportService.exportPosts(response.getOutputStream());
+    }
+
+    /**
+     * Retrieves a page of the posts of an author, newest first.
      *
      * @param author the UUID of the author.
-     * @return the post created by the specified author.
+     * @param cursor the cursor returned with the previous page, omitted for the first page.
+     * @param size   the maximum number of posts per page.
+     * @return a response entity containing the page of posts created by the specified author.
      */
     @Operation(summary = "Get posts by author")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Posts found"),
-            @ApiResponse(responseCode = "404", description = "Posts not found")
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping("/authors/{author}")
-    public List<Post> getPostByAuthor(@PathVariable UUID author) {
-        return postService.getPostByAuthor(author);
+    public ResponseEntity<PostPage> getPostsByAuthor(@PathVariable UUID author,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(postService.getPostsByAuthor(author, cursor, size));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
     }
 
     /**
      * Likes a post by its ID.
      *
      * @param id      the UUID of the post.
-     * @param request the HTTP request containing the authorization header.
+     * @param token   the verified JWT of the caller.
      * @return a response entity containing the result of the like operation.
      */
     @Operation(summary = "Like a post by ID")
@@ -136,18 +383,16 @@ public class PostController {
             @ApiResponse(responseCode = "400", description = "Cannot like your own post or post not found")
     })
     @PostMapping("/{id}/like")
-    public ResponseEntity<CustomApiResponse> likePost(@PathVariable UUID id, HttpServletRequest request) {
-        String authHeader = HeaderUtils.getAuthHeader(request);
-        String token = authHeader.substring(7); // Extract the token from the authorization header.
-        UUID userId = jwtService.extractUserId(token); // Extract the user ID from the token.
-        return postService.likePost(id, userId);
+    public ResponseEntity<CustomApiResponse> likePost(@PathVariable UUID id,
+                                                  @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.likePost(id, token.userId());
     }
 
     /**
      * Dislikes a post by its ID.
      *
      * @param id      the UUID of the post.
-     * @param request the HTTP request containing the authorization header.
+     * @param token   the verified JWT of the caller.
      * @return a response entity containing the result of the dislike operation.
      */
     @Operation(summary = "Dislike a post by ID")
@@ -156,41 +401,127 @@ public class PostController {
             @ApiResponse(responseCode = "400", description = "Cannot dislike your own post or post not found")
     })
     @PostMapping("/{id}/dislike")
-    public ResponseEntity<CustomApiResponse> dislikePost(@PathVariable UUID id, HttpServletRequest request) {
-        String authHeader = HeaderUtils.getAuthHeader(request);
-        String token = authHeader.substring(7); // Extract the token from the authorization header.
-        UUID userId = jwtService.extractUserId(token); // Extract the user ID from the token.
-        return postService.dislikePost(id, userId);
+    public ResponseEntity<CustomApiResponse> dislikePost(@PathVariable UUID id,
+                                                  @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.dislikePost(id, token.userId());
     }
 
     /**
-     * Retrieves all posts.
+     * Removes the caller's like or dislike from a post.
      *
-     * @return a list of all posts.
+     * @param id      the UUID of the post.
+     * @param token   the verified JWT of the caller.
+     * @return a response entity containing the result of the operation.
+     */
+    @Operation(summary = "Remove the caller's reaction to a post")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reaction removed successfully"),
+            @ApiResponse(responseCode = "400", description = "No reaction to remove")
+    })
+    @DeleteMapping("/{id}/reaction")
+    public ResponseEntity<CustomApiResponse> removeReaction(@PathVariable UUID id,
+                                                  @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.removeReaction(id, token.userId());
+    }
+
+    /**
+     * Retrieves the caller's reaction to a post.
+     *
+     * @param id      the UUID of the post.
+     * @param token   the verified JWT of the caller.
+     * @return a response entity whose message is LIKE, DISLIKE or NONE.
+     */
+    @Operation(summary = "Get the caller's reaction to a post")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reaction found")
+    })
+    @GetMapping("/{id}/reaction")
+    public ResponseEntity<CustomApiResponse> getReaction(@PathVariable UUID id,
+                                                  @RequestAttribute(VerifiedToken.REQUEST_ATTRIBUTE) VerifiedToken token) {
+        return postService.getReaction(id, token.userId());
+    }
+
+    /**
+     * Retrieves a page of all posts, newest first.
+     * Serialized pages are cached until any post changes, and tagged with a hash of their content.
+     *
+     * @param cursor     the cursor returned with the previous page, omitted for the first page.
+     * @param size       the maximum number of posts per page.
+     * @param request    the HTTP request.
+     * @param response   the HTTP response.
+     * @param webRequest the same request, used to evaluate its preconditions.
+     * @return a response entity containing the page of posts, as JSON, or no body if the client's copy is current.
      */
     @Operation(summary = "Get all posts")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Posts found"),
-            @ApiResponse(responseCode = "404", description = "Posts not found")
+            @ApiResponse(responseCode = "200", description = "Posts found", content =
+            @Content(mediaType = "application/json", schema = @Schema(implementation = PostPage.class))),
+            @ApiResponse(responseCode = "304", description = "Posts not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping
-    public List<Post> getAllPosts() {
-        return postService.getAllPosts();
+    public ResponseEntity<byte[]> getPosts(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           WebRequest webRequest) {
+        try {
+            SerializedResponse page = postResponseCache.listing("posts?cursor=" + cursor + "&size=" + size,
+                    () -> postService.getPosts(cursor, size));
+            varyByEncoding(response);
+            if (webRequest.checkNotModified(eTagFor(page.eTag(), request))) {
+                return null;
+            }
+            return send(page, request);
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Retrieves the trending posts.
+     *
+     * @param limit the maximum number of posts to return.
+     * @return a list of trending posts.
+     */
+    @Operation(summary = "Get trending posts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trending posts found")
+    })
+    @GetMapping("/trending")
+    public List<Post> getTrendingPosts(@RequestParam(defaultValue = "20") int limit) {
+        return postService.getTrendingPosts(limit);
     }
 
     /**
      * Retrieves the most popular posts.
+     * The serialized list is cached until any post changes, and tagged with a hash of its content.
      *
-     * @return a list of the most popular posts.
+     * @param limit      the maximum number of posts to return.
+     * @param request    the HTTP request.
+     * @param response   the HTTP response.
+     * @param webRequest the same request, used to evaluate its preconditions.
+     * @return a list of the most popular posts, as JSON, or no body if the client's copy is current.
      */
     @Operation(summary = "Get popular posts")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Popular posts found"),
+            @ApiResponse(responseCode = "200", description = "Popular posts found", content =
+            @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = Post.class)))),
+            @ApiResponse(responseCode = "304", description = "Popular posts not modified"),
             @ApiResponse(responseCode = "404", description = "Popular posts not found")
     })
     @GetMapping("/popular")
-    public List<Post> getPopularPosts() {
-        return postService.getPopularPosts();
+    public ResponseEntity<byte[]> getPopularPosts(@RequestParam(defaultValue = "20") int limit,
+                                                  HttpServletRequest request,
+                                                  HttpServletResponse response,
+                                                  WebRequest webRequest) {
+        SerializedResponse popular = postResponseCache.listing("popular?limit=" + limit,
+                () -> postService.getPopularPosts(limit));
+        varyByEncoding(response);
+        if (webRequest.checkNotModified(eTagFor(popular.eTag(), request))) {
+            return null;
+        }
+        return send(popular, request);
     }
 
 }
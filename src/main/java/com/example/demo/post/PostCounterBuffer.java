@@ -0,0 +1,206 @@
+package com.example.demo.post;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for post view counts.
+ * Increments only touch striped in-memory counters; the accumulated deltas are written
+ * periodically as one batch of relative UPDATE statements, and once more on shutdown.
+ * Beyond a maximum number of buffered posts, views of further posts are written directly.
+ */
+@Component
+public class PostCounterBuffer implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterBuffer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingScores trendingScores;
+    private final PostCache postCache;
+    private final int maxPending;
+
+    // Pending deltas per post ID.
+    private final Map<UUID, Counters> pending = new ConcurrentHashMap<>();
+
+    // Counters removed from the map in the previous flush; drained once more to catch increments still in flight.
+    private List<Counters> retired = new ArrayList<>();
+
+    private final LongAdder rowsFlushed = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Constructor to initialize PostCounterBuffer with required dependencies.
+     *
+     * @param jdbcTemplate   the JDBC template to write the counter deltas.
+     * @param trendingScores the trending scores to refresh for posts with new views.
+     * @param postCache      the post cache to invalidate for posts with new views.
+     * @param maxPending     the maximum number of posts with buffered views.
+     */
+    public PostCounterBuffer(JdbcTemplate jdbcTemplate,
+                             TrendingScores trendingScores,
+                             PostCache postCache,
+                             @Value("${application.post-counters.max-pending}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trendingScores = trendingScores;
+        this.postCache = postCache;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records one view of a post.
+     *
+     * @param postId the UUID of the post.
+     */
+    public void recordView(UUID postId) {
+        Counters counters = pending.get(postId);
+        if (counters == null && pending.size() >= maxPending) {
+            overflows.increment();
+            jdbcTemplate.update("update post_stats set views = views + 1, updated_at = ? where post_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now()), postId);
+            trendingScores.markDirty(postId);
+            postCache.invalidateCounters(postId);
+            return;
+        }
+        (counters != null ? counters : counters(postId)).views.increment();
+    }
+
+    private Counters counters(UUID postId) {
+        Counters counters = pending.get(postId);
+        return counters != null ? counters : pending.computeIfAbsent(postId, id -> new Counters(id));
+    }
+
+    /**
+     * Writes the accumulated deltas to the database as one batch.
+     * Posts without new increments since the last flush are dropped from the buffer.
+     * If the batch fails, the deltas are added back and retried on the next flush.
+     *
+     * @return the number of posts whose counters were written.
+     */
+    @Scheduled(fixedDelayString = "${application.post-counters.flush-interval}",
+            initialDelayString = "${application.post-counters.flush-interval}")
+    public synchronized int flush() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Counters counters : retired) {
+            counters.drainTo(deltas);
+        }
+
+        List<Counters> idle = new ArrayList<>();
+        for (Counters counters : pending.values()) {
+            if (!counters.drainTo(deltas)) {
+                idle.add(counters);
+            }
+        }
+        // An increment may still land on an idle counter after it is removed; it is picked up on the next flush
+        retired = idle;
+        for (Counters counters : idle) {
+            pending.remove(counters.postId, counters);
+        }
+
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate("update post_stats set views = views + ?, updated_at = ? where post_id = ?",
+                    deltas, deltas.size(), (statement, delta) -> {
+                        statement.setLong(1, delta.views());
+                        statement.setTimestamp(2, updatedAt);
+                        statement.setObject(3, delta.postId());
+                    });
+            rowsFlushed.add(deltas.size());
+            for (Delta delta : deltas) {
+                trendingScores.markDirty(delta.postId());
+                postCache.invalidateCounters(delta.postId());
+            }
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            logger.warn("Could not flush counters of {} posts, retrying on the next flush", deltas.size(), e);
+            for (Delta delta : deltas) {
+                counters(delta.postId()).views.add(delta.views());
+            }
+            return 0;
+        }
+        return deltas.size();
+    }
+
+    /**
+     * Flushes the remaining deltas when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        flush();
+        flush(); // Drains the counters retired by the first flush
+    }
+
+    /**
+     * Returns the number of posts with buffered counters.
+     *
+     * @return the number of posts.
+     */
+    public int pendingPosts() {
+        return pending.size();
+    }
+
+    /**
+     * Registers the buffer metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("post.counters.pending", this, PostCounterBuffer::pendingPosts)
+                .description("Posts with counter increments not yet written")
+                .register(registry);
+        FunctionCounter.builder("post.counters.flushed", rowsFlushed, LongAdder::sum)
+                .description("Post rows updated by counter flushes")
+                .register(registry);
+        FunctionCounter.builder("post.counters.flush.failures", flushFailures, LongAdder::sum)
+                .description("Counter flushes that failed and were retried")
+                .register(registry);
+        FunctionCounter.builder("post.counters.overflows", overflows, LongAdder::sum)
+                .description("Views written directly because the buffer was full")
+                .register(registry);
+    }
+
+    private static final class Counters {
+        private final UUID postId;
+        private final LongAdder views = new LongAdder();
+
+        private Counters(UUID postId) {
+            this.postId = postId;
+        }
+
+        // Resets the counter and adds its value to the batch; returns false if there was nothing to add.
+        private boolean drainTo(List<Delta> deltas) {
+            long views = this.views.sumThenReset();
+            if (views == 0) {
+                return false;
+            }
+            deltas.add(new Delta(postId, views));
+            return true;
+        }
+    }
+
+    private record Delta(UUID postId, long views) {
+    }
+}
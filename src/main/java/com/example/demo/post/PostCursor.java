@@ -0,0 +1,80 @@
+package com.example.demo.post;
+
+import com.example.demo.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a post listing ordered by creation time and ID, newest first.
+ * Clients only see it as an opaque token pointing just past the last post of a page.
+ */
+public record PostCursor(
+        // Creation time of the last post of the page.
+        LocalDateTime createdAt,
+
+        // ID of the last post of the page, breaking ties between posts created at the same time.
+        UUID id) {
+
+    // Epoch seconds, nanoseconds and the two halves of the UUID.
+    private static final int LENGTH = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * Creates the cursor pointing past the given post.
+     *
+     * @param post the last post of a page.
+     * @return the cursor.
+     */
+    public static PostCursor after(Post post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    /**
+     * Encodes the cursor as a URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.putLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(createdAt.getNano());
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws InvalidCursorException if the token is not a valid cursor.
+     */
+    public static PostCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+        if (bytes.length != LENGTH) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        if (nanos < 0 || nanos > 999_999_999) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+        try {
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            return new PostCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Published when a post is deleted, so in-memory state about it is dropped once the delete is committed.
+ *
+ * @param postId the UUID of the deleted post.
+ */
+public record PostDeletedEvent(UUID postId) {
+}
@@ -0,0 +1,124 @@
+package com.example.demo.post;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting all posts as newline-delimited JSON.
+ * Posts are read through a forward-only database cursor in batches of the fetch size and detached as soon as they
+ * are read; the images of each batch are loaded with one query and the batch is written and flushed before the
+ * next one is read, so memory use does not depend on the number of posts.
+ */
+@Service
+public class PostExportService {
+
+    private final EntityManager entityManager;
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter postWriter;
+    private final int fetchSize;
+
+    /**
+     * Constructor to initialize PostExportService with required dependencies.
+     *
+     * @param entityManager      the entity manager to read the posts.
+     * @param postRepository     the repository to read the images of the posts.
+     * @param transactionManager the transaction manager for the read-only export transaction.
+     * @param objectMapper       the object mapper to write the posts.
+     * @param fetchSize          the number of posts fetched from the database per round trip.
+     */
+    public PostExportService(EntityManager entityManager,
+                             PostRepository postRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${application.post-export.fetch-size}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.postRepository = postRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.postWriter = objectMapper.writerFor(Post.class);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every post to the output stream, one JSON object per line.
+     *
+     * @param output the stream to write to; flushed after every batch.
+     * @return the number of posts exported.
+     * @throws IOException if the output stream cannot be written, e.g. because the client went away.
+     */
+    public long exportPosts(OutputStream output) throws IOException {
+        try {
+            Long exported = transactionTemplate.execute(status -> {
+                try (Stream<Post> posts = entityManager.createQuery("select p from Post p", Post.class)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultStream()) {
+                    long count = 0;
+                    List<Post> batch = new ArrayList<>(fetchSize);
+                    Iterator<Post> iterator = posts.iterator();
+                    while (iterator.hasNext()) {
+                        Post post = iterator.next();
+                        entityManager.detach(post);
+                        batch.add(post);
+                        if (batch.size() == fetchSize) {
+                            count += write(batch, output);
+                        }
+                    }
+                    return count + write(batch, output);
+                }
+            });
+            return exported == null ? 0 : exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Loads the images of a batch of detached posts, writes the posts and clears the batch.
+     */
+    private int write(List<Post> batch, OutputStream output) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, List<String>> images = new HashMap<>();
+        List<UUID> ids = batch.stream().map(Post::getId).toList();
+        for (PostImage image : postRepository.findImages(ids)) {
+            images.computeIfAbsent(image.postId(), id -> new ArrayList<>()).add(image.image());
+        }
+
+        try {
+            for (Post post : batch) {
+                // Detached, so this replaces the lazy collection instead of loading it
+                post.setImages(images.getOrDefault(post.getId(), List.of()));
+                output.write(postWriter.writeValueAsBytes(post));
+                output.write('\n');
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+}
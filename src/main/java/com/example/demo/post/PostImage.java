@@ -0,0 +1,14 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Image URL of a post, as read for a batch of posts at once.
+ */
+public record PostImage(
+        // Unique identifier of the post.
+        UUID postId,
+
+        // URL of the image.
+        String image) {
+}
@@ -0,0 +1,25 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Result of importing one post of a bulk import.
+ *
+ * @param index   the position of the post in the request, starting at 0.
+ * @param outcome whether the post was created, rejected or failed.
+ * @param id      the UUID of the created post, or null.
+ * @param message the reason a post was not created, or null.
+ */
+public record PostImportResult(int index, Outcome outcome, UUID id, String message) {
+
+    public enum Outcome {
+        // The post was stored.
+        CREATED,
+
+        // The post failed validation and was not stored.
+        INVALID,
+
+        // The post was valid but could not be stored.
+        FAILED
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.post;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for importing posts in bulk.
+ * Posts are read one at a time from a JSON array or newline-delimited JSON stream, validated, and stored
+ * in chunks of one transaction each, so memory use does not depend on the size of the import.
+ * Within a chunk Hibernate sends the inserts into posts, post_stats and post_images as JDBC batches.
+ */
+@Service
+public class PostImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostImportService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader postReader;
+    private final PopularityIndex popularityIndex;
+    private final PostCache postCache;
+    private final int chunkSize;
+
+    /**
+     * Constructor to initialize PostImportService with required dependencies.
+     *
+     * @param entityManager      the entity manager to persist the posts.
+     * @param transactionManager the transaction manager for the per-chunk transactions.
+     * @param validator          the validator for the imported posts.
+     * @param objectMapper       the object mapper to read the posts.
+     * @param popularityIndex    the popularity ranking that new posts are offered to.
+     * @param postCache          the post cache, told about new posts so cached listings are outdated.
+     * @param chunkSize          the number of posts stored per transaction.
+     */
+    public PostImportService(EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             PopularityIndex popularityIndex,
+                             PostCache postCache,
+                             @Value("${application.post-import.chunk-size}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.postReader = objectMapper.readerFor(Post.class);
+        this.popularityIndex = popularityIndex;
+        this.postCache = postCache;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports posts from a stream.
+     *
+     * @param input         a JSON array of posts, or one post per line.
+     * @param defaultAuthor the author of posts that do not name one.
+     * @param results       receives the result of every post, in request order, as soon as it is known;
+     *                      malformed JSON is reported as an invalid element and ends the import.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void importPosts(InputStream input, UUID defaultAuthor, Consumer<PostImportResult> results) throws IOException {
+        List<Post> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        try (MappingIterator<Post> posts = postReader.readValues(input)) {
+            while (true) {
+                Post post;
+                try {
+                    if (!posts.hasNextValue()) {
+                        break;
+                    }
+                    post = posts.nextValue();
+                } catch (JsonProcessingException e) {
+                    results.accept(new PostImportResult(index, PostImportResult.Outcome.INVALID, null,
+                            "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                }
+                prepare(post, defaultAuthor);
+
+                Set<ConstraintViolation<Post>> violations = validator.validate(post);
+                if (!violations.isEmpty()) {
+                    results.accept(new PostImportResult(index++, PostImportResult.Outcome.INVALID, null, describe(violations)));
+                    continue;
+                }
+
+                chunk.add(post);
+                indexes.add(index++);
+                if (chunk.size() == chunkSize) {
+                    store(chunk, indexes, results);
+                }
+            }
+        } finally {
+            // Posts read before a malformed element or a read failure are still stored
+            store(chunk, indexes, results);
+        }
+    }
+
+    /**
+     * Clears the fields a client must not set on a new post: its identity, counters, status and timestamps.
+     * The entity callback sets them again when the post is persisted.
+     */
+    private void prepare(Post post, UUID defaultAuthor) {
+        post.setId(null);
+        post.setVersion(null);
+        post.setLikes(null);
+        post.setDislikes(null);
+        post.setScore(null);
+        post.setViews(null);
+        post.setUniqueViewers(null);
+        post.setHotScore(null);
+        post.setStatus(null);
+        post.setCreatedAt(null);
+        post.setUpdatedAt(null);
+        post.setStatsUpdatedAt(null);
+        if (post.getAuthor() == null) {
+            post.setAuthor(defaultAuthor);
+        }
+    }
+
+    /**
+     * Stores a chunk of valid posts in one transaction and reports their results.
+     * If the chunk fails, its posts are stored one by one to find the ones that cannot be stored.
+     */
+    private void store(List<Post> chunk, List<Integer> indexes, Consumer<PostImportResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (tryPersist(chunk)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    created(indexes.get(i), chunk.get(i), results);
+                }
+                return;
+            }
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Post post = chunk.get(i);
+                post.setId(null);
+                try {
+                    persist(List.of(post));
+                } catch (RuntimeException e) {
+                    results.accept(new PostImportResult(indexes.get(i), PostImportResult.Outcome.FAILED, null,
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                    continue;
+                }
+                created(indexes.get(i), post, results);
+            }
+        } finally {
+            chunk.clear();
+            indexes.clear();
+        }
+    }
+
+    private boolean tryPersist(List<Post> posts) {
+        try {
+            persist(posts);
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not store a chunk of {} posts, storing them one by one", posts.size(), e);
+            return false;
+        }
+    }
+
+    private void persist(List<Post> posts) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Post post : posts) {
+                entityManager.persist(post);
+            }
+            entityManager.flush();
+            entityManager.clear(); // Keeps the persistence context from growing across chunks
+        });
+    }
+
+    private void created(int index, Post post, Consumer<PostImportResult> results) {
+        popularityIndex.offer(post.getId(), 0);
+        postCache.invalidate(post.getId());
+        results.accept(new PostImportResult(index, PostImportResult.Outcome.CREATED, post.getId(), null));
+    }
+
+    private String describe(Set<ConstraintViolation<Post>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.post;
+
+import java.util.List;
+
+/**
+ * One page of a post listing.
+ */
+public record PostPage(
+        // Posts of the page, newest first.
+        List<Post> posts,
+
+        // Cursor of the next page, or null if this is the last page.
+        String nextCursor) {
+
+    /**
+     * Builds a page from posts fetched with one extra row, which only tells whether a next page exists.
+     *
+     * @param posts the posts fetched, at most size + 1.
+     * @param size  the page size.
+     * @return the page.
+     */
+    public static PostPage of(List<Post> posts, int size) {
+        if (posts.size() <= size) {
+            return new PostPage(posts, null);
+        }
+        List<Post> page = posts.subList(0, size);
+        return new PostPage(page, PostCursor.after(page.get(size - 1)).encode());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.post;
+
+import java.util.List;
+
+/**
+ * Partial update of a post. Fields left null are not changed.
+ */
+public record PostPatch(
+        // New title of the post.
+        String title,
+
+        // New content of the post.
+        String content,
+
+        // New status of the post.
+        Status status,
+
+        // New visibility flag of the post.
+        Boolean visibility,
+
+        // New flag indicating if comments are enabled for the post.
+        Boolean commentsEnabled,
+
+        // New image URLs of the post, replacing the current ones.
+        List<String> images,
+
+        // Version of the post the patch was made against; required.
+        Long version) {
+
+    /**
+     * Checks whether the patch changes any field.
+     *
+     * @return true if at least one field is set, false otherwise.
+     */
+    public boolean hasChanges() {
+        return title != null || content != null || status != null || visibility != null
+                || commentsEnabled != null || images != null;
+    }
+}
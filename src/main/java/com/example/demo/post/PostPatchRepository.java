@@ -0,0 +1,20 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Repository fragment for partial updates of posts.
+ */
+public interface PostPatchRepository {
+
+    /**
+     * Applies the fields set in a patch to a post with a single targeted update,
+     * provided the post is still at the version the patch was made against.
+     * The version is incremented by one.
+     *
+     * @param id    the UUID of the post.
+     * @param patch the fields to change and the expected version.
+     * @return the number of posts updated, 0 if the post does not exist or is at another version.
+     */
+    int applyPatch(UUID id, PostPatch patch);
+}
@@ -0,0 +1,72 @@
+package com.example.demo.post;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link PostPatchRepository}.
+ * Builds an update of only the columns set in the patch, so unchanged columns are neither sent nor rewritten.
+ */
+public class PostPatchRepositoryImpl implements PostPatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to initialize PostPatchRepositoryImpl with required dependencies.
+     *
+     * @param jdbcTemplate the JDBC template to run the update.
+     */
+    public PostPatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int applyPatch(UUID id, PostPatch patch) {
+        StringBuilder sql = new StringBuilder("update posts set version = version + 1, updated_at = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        if (patch.title() != null) {
+            sql.append(", title = ?");
+            args.add(patch.title());
+        }
+        if (patch.content() != null) {
+            sql.append(", content = ?");
+            args.add(patch.content());
+        }
+        if (patch.status() != null) {
+            sql.append(", status = ?");
+            args.add(patch.status().ordinal()); // Mapped as ordinal by Post
+        }
+        if (patch.visibility() != null) {
+            sql.append(", visibility = ?");
+            args.add(patch.visibility());
+        }
+        if (patch.commentsEnabled() != null) {
+            sql.append(", comments_enabled = ?");
+            args.add(patch.commentsEnabled());
+        }
+        sql.append(" where id = ? and version = ?");
+        args.add(id);
+        args.add(patch.version());
+
+        int updated = jdbcTemplate.update(sql.toString(), args.toArray());
+
+        // The version bump above also guards the images, which live in their own table
+        if (updated == 1 && patch.images() != null) {
+            jdbcTemplate.update("delete from post_images where post_id = ?", id);
+            jdbcTemplate.batchUpdate("insert into post_images (post_id, image) values (?, ?)",
+                    patch.images(), patch.images().size(), (statement, image) -> {
+                        statement.setObject(1, id);
+                        statement.setString(2, image);
+                    });
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Published when the like and dislike counters of a post change.
+ *
+ * @param postId   the UUID of the post.
+ * @param likes    the change of the like counter.
+ * @param dislikes the change of the dislike counter.
+ */
+public record PostReactionEvent(UUID postId, long likes, long dislikes) {
+}
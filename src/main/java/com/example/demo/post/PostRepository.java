@@ -1,22 +1,93 @@
 package com.example.demo.post;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, UUID> {
-    // Find all posts by a specific author.
-    List<Post> findAllByAuthor(UUID author);
+public interface PostRepository extends JpaRepository<Post, UUID>, PostPatchRepository {
+    // Find the first page of posts, newest first, read along the (created_at, id) index.
+    @Query("select p from Post p order by p.createdAt desc, p.id desc")
+    List<Post> findPage(Pageable pageable);
+
+    // Find the page of posts following the given cursor position, newest first.
+    // The row-value comparison lets the database seek the (created_at, id) index to the cursor.
+    @Query("""
+            select p from Post p
+            where (p.createdAt, p.id) < (:createdAt, :id)
+            order by p.createdAt desc, p.id desc""")
+    List<Post> findPageAfter(LocalDateTime createdAt, UUID id, Pageable pageable);
+
+    // Find the first page of posts by a specific author, newest first, read along the (author, created_at, id) index.
+    @Query("select p from Post p where p.author = :author order by p.createdAt desc, p.id desc")
+    List<Post> findPageByAuthor(UUID author, Pageable pageable);
+
+    // Find the page of posts by a specific author following the given cursor position, newest first.
+    // The row-value comparison lets the database seek the (author, created_at, id) index to the cursor.
+    @Query("""
+            select p from Post p
+            where p.author = :author and (p.createdAt, p.id) < (:createdAt, :id)
+            order by p.createdAt desc, p.id desc""")
+    List<Post> findPageByAuthorAfter(UUID author, LocalDateTime createdAt, UUID id, Pageable pageable);
 
     // Find a post by its ID.
     Optional<Post> findById(UUID id);
 
-    // Custom query to find posts ordered by popularity (likes minus dislikes).
-    @Query("SELECT p FROM Post p ORDER BY (p.likes - p.dislikes) DESC")
-    List<Post> findPostsOrderByPopularity();
+    // Find a post by its ID together with its images, in one query.
+    @EntityGraph(attributePaths = "images")
+    Optional<Post> findWithImagesById(UUID id);
+
+    // Find only the author of a post, without loading its content and images.
+    @Query("select p.author from Post p where p.id = :id")
+    Optional<UUID> findAuthorById(UUID id);
+
+    // Find only the author of a post that is still a draft.
+    @Query("select p.author from Post p where p.id = :id and p.status = com.example.demo.post.Status.DRAFT")
+    Optional<UUID> findDraftAuthorById(UUID id);
+
+    // Atomically add to the like and dislike counters and the score of a post, returning the number of rows updated.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update post_stats set likes = likes + :likes, dislikes = dislikes + :dislikes, score = score + :likes - :dislikes,
+                updated_at = :updatedAt
+            where post_id = :id""", nativeQuery = true)
+    int addReactions(UUID id, long likes, long dislikes, LocalDateTime updatedAt);
+
+    // Find the fields the entity tag and last modification time of a post are derived from, without its content.
+    @Query("""
+            select new com.example.demo.post.PostValidator(p.version, p.createdAt, p.updatedAt, p.statsUpdatedAt,
+                p.likes, p.dislikes, p.views, p.uniqueViewers, p.hotScore)
+            from Post p where p.id = :id""")
+    Optional<PostValidator> findValidatorById(UUID id);
+
+    // Find the IDs and scores of the most popular posts, read along the (score, post_id) index of post_stats.
+    @Query("select new com.example.demo.post.PostScore(p.id, p.score) from Post p order by p.score desc, p.id desc")
+    List<PostScore> findTopScores(Pageable pageable);
+
+    // Find the posts with the highest trending score, read along the (hot_score, post_id) index of post_stats.
+    @Query("select p from Post p order by p.hotScore desc, p.id desc")
+    List<Post> findTrending(Pageable pageable);
+
+    // Find the inputs of the trending score of the given posts.
+    @Query("select new com.example.demo.post.TrendingInput(p.id, p.likes, p.dislikes, p.views, p.createdAt) from Post p where p.id in :ids")
+    List<TrendingInput> findTrendingInputs(Collection<UUID> ids);
+
+    // Find the images of the given posts.
+    @Query("select new com.example.demo.post.PostImage(p.id, i) from Post p join p.images i where p.id in :ids")
+    List<PostImage> findImages(Collection<UUID> ids);
+
+    // Find the IDs and popularity scores of the given posts.
+    @Query("select new com.example.demo.post.PostScore(p.id, p.score) from Post p where p.id in :ids")
+    List<PostScore> findScoresByIdIn(Collection<UUID> ids);
 }
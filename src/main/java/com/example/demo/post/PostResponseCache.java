@@ -0,0 +1,125 @@
+package com.example.demo.post;
+
+import com.example.demo.util.BoundedTtlCache;
+import com.example.demo.util.SerializedResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized post responses, so hot read endpoints send ready-made bytes instead of serializing
+ * the same posts on every request.
+ * Single posts are keyed by ID, invalidated with the post and tagged with the validator of the state they were
+ * serialized from. Listings are keyed by the request and a generation
+ * that is bumped when a post is created, edited, deleted or reacted to, so such a change makes all cached listings
+ * unreachable at once; they then age out of the cache. Counter flushes only invalidate the single post, so listings
+ * may show view counts up to the cache TTL old.
+ */
+@Component
+public class PostResponseCache {
+
+    private final BoundedTtlCache<String, SerializedResponse> responseCache;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinimumSize;
+
+    // Generation of the cached listings.
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructor to initialize PostResponseCache with required dependencies.
+     *
+     * @param responseCache   the underlying bounded cache.
+     * @param objectMapper    the object mapper to serialize the responses.
+     * @param gzipMinimumSize the minimum response size in bytes that is also kept gzip-compressed.
+     */
+    public PostResponseCache(BoundedTtlCache<String, SerializedResponse> responseCache,
+                             ObjectMapper objectMapper,
+                             @Value("${application.cache.response.gzip-min-size}") int gzipMinimumSize) {
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.gzipMinimumSize = gzipMinimumSize;
+    }
+
+    /**
+     * Returns the serialized response of a single post, loading and serializing it on a miss.
+     * A cached response serialized from another state of the post than the given entity tag describes, for
+     * example one cached before a change made through another instance, is loaded again. The entity tag of the
+     * returned response is always that of the state it was serialized from, so it may still differ from the given
+     * one if the post changed again in the meantime.
+     *
+     * @param id     the UUID of the post.
+     * @param eTag   the entity tag of the post as just validated by the caller.
+     * @param loader loads the post, returning null if not found.
+     * @return the serialized post, or null if not found.
+     */
+    public SerializedResponse post(UUID id, String eTag, Supplier<Post> loader) {
+        String key = "post:" + id;
+        SerializedResponse post = responseCache.get(key, k -> serializePost(loader.get()));
+        if (post != null && !post.eTag().equals(eTag)) {
+            responseCache.invalidate(key);
+            post = responseCache.get(key, k -> serializePost(loader.get()));
+        }
+        return post;
+    }
+
+    /**
+     * Returns the serialized response of a post listing, loading and serializing it on a miss.
+     *
+     * @param resource identifies the listing and all request parameters it depends on.
+     * @param loader   loads the listing.
+     * @return the serialized listing.
+     */
+    public SerializedResponse listing(String resource, Supplier<?> loader) {
+        // Taken before loading, so a listing loaded while a post changes is stored under the outdated generation
+        return responseCache.get(resource + "@" + generation.get(), key -> serialize(loader.get()));
+    }
+
+    /**
+     * Invalidates the responses containing a post after it was created, edited, deleted or reacted to.
+     *
+     * @param id the UUID of the post.
+     */
+    public void invalidate(UUID id) {
+        generation.incrementAndGet();
+        responseCache.invalidate("post:" + id);
+    }
+
+    /**
+     * Invalidates the response of a single post after its view counters or trending score changed,
+     * keeping the cached listings.
+     *
+     * @param id the UUID of the post.
+     */
+    public void invalidatePost(UUID id) {
+        responseCache.invalidate("post:" + id);
+    }
+
+    private SerializedResponse serializePost(Post post) {
+        if (post == null) {
+            return null;
+        }
+        try {
+            return SerializedResponse.of(objectMapper.writeValueAsBytes(post), PostValidator.of(post).eTag(),
+                    gzipMinimumSize);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SerializedResponse serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return SerializedResponse.of(objectMapper.writeValueAsBytes(body), gzipMinimumSize);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
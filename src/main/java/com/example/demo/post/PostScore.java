@@ -0,0 +1,12 @@
+package com.example.demo.post;
+
+import java.util.UUID;
+
+/**
+ * Popularity score (likes minus dislikes) of a post.
+ *
+ * @param postId the UUID of the post.
+ * @param score  the popularity score.
+ */
+public record PostScore(UUID postId, long score) {
+}
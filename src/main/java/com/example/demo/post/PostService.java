@@ -1,11 +1,21 @@
 package com.example.demo.post;
 
 import com.example.demo.util.CustomApiResponse;
+import com.example.demo.util.HashUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -14,35 +24,80 @@ import java.util.UUID;
 @Service
 public class PostService {
     private final PostRepository postRepository;
+    private final PostCounterBuffer postCounterBuffer;
+    private final ReactionService reactionService;
+    private final UniqueViewerCounter uniqueViewerCounter;
+    private final PopularityIndex popularityIndex;
+    private final DraftAutosaveBuffer draftAutosaveBuffer;
+    private final PostCache postCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructor to initialize PostService with required dependencies.
      *
-     * @param postRepository the repository to handle post persistence.
+     * @param postRepository    the repository to handle post persistence.
+     * @param postCounterBuffer the buffer absorbing view increments.
+     * @param reactionService     the service recording likes and dislikes.
+     * @param uniqueViewerCounter the counter of distinct viewers per post.
+     * @param popularityIndex     the in-memory ranking of the most popular posts.
+     * @param draftAutosaveBuffer the buffer coalescing draft autosaves.
+     * @param postCache           the read-through cache of posts.
+     * @param eventPublisher      the publisher of post deletion events.
      */
-    public PostService(PostRepository postRepository) {
+    public PostService(PostRepository postRepository, PostCounterBuffer postCounterBuffer, ReactionService reactionService,
+                       UniqueViewerCounter uniqueViewerCounter, PopularityIndex popularityIndex,
+                       DraftAutosaveBuffer draftAutosaveBuffer, PostCache postCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.postRepository = postRepository;
+        this.postCounterBuffer = postCounterBuffer;
+        this.reactionService = reactionService;
+        this.uniqueViewerCounter = uniqueViewerCounter;
+        this.popularityIndex = popularityIndex;
+        this.draftAutosaveBuffer = draftAutosaveBuffer;
+        this.postCache = postCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves a post by its ID.
+     * Retrieves a post by its ID, from the post cache when possible.
      *
      * @param id the UUID of the post.
      * @return the post with the specified ID, or null if not found.
      */
     public Post getPostById(UUID id) {
-        return postRepository.findById(id).orElse(null);
+        return postCache.get(id);
+    }
+
+    /**
+     * Retrieves the entity tag and last modification time of a post, so conditional requests can be answered
+     * without loading it. A cached post is used when present; otherwise only the validator columns are read.
+     *
+     * @param id the UUID of the post.
+     * @return the validator of the post, or null if not found.
+     */
+    public PostValidator getPostValidator(UUID id) {
+        Post cached = postCache.getIfCached(id);
+        if (cached != null) {
+            return PostValidator.of(cached);
+        }
+        return postRepository.findValidatorById(id).orElse(null);
     }
 
     /**
      * Deletes a post by its ID.
+     * The post, its reactions and its stored viewer sketch are deleted in one transaction; caches, rankings and
+     * buffers drop the post once that transaction is committed.
      *
      * @param id the UUID of the post.
      * @return a response entity containing the result of the delete operation.
      */
+    @Transactional
     public ResponseEntity<CustomApiResponse> deletePost(UUID id) {
         if (postRepository.existsById(id)) {
+            reactionService.removeAllReactions(id);
+            uniqueViewerCounter.remove(id);
             postRepository.deleteById(id);
+            eventPublisher.publishEvent(new PostDeletedEvent(id));
             return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post deleted successfully."));
         }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Post not found."));
@@ -50,14 +105,24 @@ public class PostService {
 
     /**
      * Updates a post by its ID.
+     * The updated post must carry the version it was edited from, and the post must still be at that version,
+     * so a full replacement never silently overwrites a concurrent edit.
      *
      * @param id          the UUID of the post.
      * @param updatedPost the updated post data.
-     * @return a response entity containing the result of the update operation.
+     * @return a response entity containing the result of the update operation; 428 if the version is missing,
+     * 409 if the post was changed meanwhile.
      */
     public ResponseEntity<CustomApiResponse> updatePost(UUID id, Post updatedPost) {
+        if (updatedPost.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(new CustomApiResponse(HttpStatus.PRECONDITION_REQUIRED, "Version is required."));
+        }
+        draftAutosaveBuffer.flush(id); // The edit applies on top of the latest autosave
         Post existingPost = postRepository.findById(id).orElse(null);
         if (existingPost != null) {
+            if (!updatedPost.getVersion().equals(existingPost.getVersion())) {
+                return conflict();
+            }
             ResponseEntity<CustomApiResponse> response = validateUnmodifiableFields(existingPost, updatedPost);
             existingPost.setTitle(updatedPost.getTitle());
             existingPost.setContent(updatedPost.getContent());
@@ -65,12 +130,101 @@ public class PostService {
             existingPost.setVisibility(updatedPost.isVisibility());
             existingPost.setCommentsEnabled(updatedPost.isCommentsEnabled());
             existingPost.setImages(updatedPost.getImages());
-            postRepository.save(existingPost);
+            try {
+                postRepository.save(existingPost);
+            } catch (ConcurrencyFailureException e) {
+                return conflict();
+            } finally {
+                postCache.invalidate(id);
+            }
             return response;
         }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Post not found."));
     }
 
+    /**
+     * Applies a partial update to a post by its ID.
+     * Only the fields set in the patch are written, and only if the post is still at the version of the patch.
+     *
+     * @param id      the UUID of the post.
+     * @param patch   the fields to change and the version they were made against.
+     * @param userId  the UUID of the user updating the post.
+     * @param admin   whether the user may update posts of other users.
+     * @return a response entity containing the result of the update operation; 409 if the post was changed meanwhile.
+     */
+    public ResponseEntity<CustomApiResponse> patchPost(UUID id, PostPatch patch, UUID userId, boolean admin) {
+        if (patch.version() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Version is required."));
+        }
+        if (patch.title() != null && patch.title().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Title cannot be empty."));
+        }
+
+        UUID author = postRepository.findAuthorById(id).orElse(null);
+        if (author == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Post not found."));
+        }
+        if (!admin && !author.equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new CustomApiResponse(HttpStatus.FORBIDDEN, "Cannot update another user's post."));
+        }
+        if (!patch.hasChanges()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "No fields to update."));
+        }
+
+        draftAutosaveBuffer.flush(id); // The patch applies on top of the latest autosave
+        try {
+            if (postRepository.applyPatch(id, patch) == 0) {
+                return conflict();
+            }
+        } catch (ConcurrencyFailureException e) {
+            return conflict(); // Lost a row lock or serialization race against a concurrent edit
+        } finally {
+            postCache.invalidate(id);
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post updated successfully."));
+    }
+
+    /**
+     * Autosaves a draft post.
+     * The changes are kept in memory and written at most once per flush interval, or right away when the post is
+     * edited, published or the application shuts down. Autosaves do not change the version of the post, so the
+     * author's own edit or publish made after them is not rejected as a conflict.
+     *
+     * @param id     the UUID of the draft post.
+     * @param draft  the autosaved fields.
+     * @param userId the UUID of the user saving the draft.
+     * @return a response entity containing the result of the autosave.
+     */
+    public ResponseEntity<CustomApiResponse> autosaveDraft(UUID id, DraftUpdate draft, UUID userId) {
+        if (draft.title() != null && draft.title().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Title cannot be empty."));
+        }
+
+        // Ownership was checked when the pending changes were first recorded
+        if (!draftAutosaveBuffer.isPendingFor(id, userId)) {
+            UUID author = postRepository.findDraftAuthorById(id).orElse(null);
+            if (author == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Draft not found."));
+            }
+            if (!author.equals(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new CustomApiResponse(HttpStatus.FORBIDDEN, "Cannot update another user's post."));
+            }
+        }
+
+        draftAutosaveBuffer.record(id, userId, draft);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new CustomApiResponse(HttpStatus.ACCEPTED, "Draft saved."));
+    }
+
+    /**
+     * Builds the response for an edit made against an outdated version of a post.
+     *
+     * @return a response entity with status 409.
+     */
+    private ResponseEntity<CustomApiResponse> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new CustomApiResponse(HttpStatus.CONFLICT,
+                "Post was modified by another request, reload it and try again."));
+    }
+
     /**
      * Validates that certain fields of the post cannot be modified.
      *
@@ -95,31 +249,45 @@ public class PostService {
      * @return the created post.
      */
     public Post createPost(Post post) {
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        postCache.invalidate(saved.getId()); // Outdates the cached listings
+        popularityIndex.offer(saved.getId(), saved.getScore());
+        return saved;
     }
 
     /**
-     * Retrieves a post by its author.
+     * Retrieves a page of the posts of an author, newest first.
      *
      * @param author the UUID of the author.
-     * @return the post created by the specified author.
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param size   the maximum number of posts, between 1 and 100.
+     * @return the page of posts created by the specified author.
+     * @throws com.example.demo.exception.InvalidCursorException if the cursor is not valid.
      */
-    public List<Post> getPostByAuthor(UUID author) {
-        return postRepository.findAllByAuthor(author);
+    public PostPage getPostsByAuthor(UUID author, String cursor, int size) {
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        if (cursor == null) {
+            return PostPage.of(postRepository.findPageByAuthor(author, pageable), limit);
+        }
+        PostCursor position = PostCursor.decode(cursor);
+        return PostPage.of(postRepository.findPageByAuthorAfter(author, position.createdAt(), position.id(), pageable), limit);
     }
 
     /**
      * Likes a post by its ID.
+     * Each user likes a post at most once; an existing dislike is switched to a like.
      *
      * @param id     the UUID of the post.
      * @param userId the UUID of the user liking the post.
      * @return a response entity containing the result of the like operation.
      */
     public ResponseEntity<CustomApiResponse> likePost(UUID id, UUID userId) {
-        Post post = postRepository.findById(id).orElse(null);
-        if (post != null && !post.getAuthor().equals(userId)) {
-            post.setLikes(post.getLikes() + 1);
-            postRepository.save(post);
+        UUID author = postRepository.findAuthorById(id).orElse(null);
+        if (author != null && !author.equals(userId)) {
+            if (reactionService.react(id, userId, ReactionType.LIKE) == ReactionService.Result.UNCHANGED) {
+                return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post already liked."));
+            }
             return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post liked successfully."));
         } else {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Cannot like your own post or post not found."));
@@ -128,16 +296,18 @@ public class PostService {
 
     /**
      * Dislikes a post by its ID.
+     * Each user dislikes a post at most once; an existing like is switched to a dislike.
      *
      * @param id     the UUID of the post.
      * @param userId the UUID of the user disliking the post.
      * @return a response entity containing the result of the dislike operation.
      */
     public ResponseEntity<CustomApiResponse> dislikePost(UUID id, UUID userId) {
-        Post post = postRepository.findById(id).orElse(null);
-        if (post != null && !post.getAuthor().equals(userId)) {
-            post.setDislikes(post.getDislikes() + 1);
-            postRepository.save(post);
+        UUID author = postRepository.findAuthorById(id).orElse(null);
+        if (author != null && !author.equals(userId)) {
+            if (reactionService.react(id, userId, ReactionType.DISLIKE) == ReactionService.Result.UNCHANGED) {
+                return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post already disliked."));
+            }
             return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Post disliked successfully."));
         } else {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "Cannot dislike your own post or post not found."));
@@ -145,34 +315,97 @@ public class PostService {
     }
 
     /**
-     * Increments the view count of a post by its ID.
+     * Removes the like or dislike of a user from a post.
      *
-     * @param id the UUID of the post.
+     * @param id     the UUID of the post.
+     * @param userId the UUID of the user.
+     * @return a response entity containing the result of the operation.
+     */
+    public ResponseEntity<CustomApiResponse> removeReaction(UUID id, UUID userId) {
+        return reactionService.removeReaction(id, userId)
+                .map(type -> ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, "Reaction removed successfully.")))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CustomApiResponse(HttpStatus.BAD_REQUEST, "No reaction to remove.")));
+    }
+
+    /**
+     * Retrieves the reaction of a user to a post.
+     *
+     * @param id     the UUID of the post.
+     * @param userId the UUID of the user.
+     * @return a response entity whose message is LIKE, DISLIKE or NONE.
+     */
+    public ResponseEntity<CustomApiResponse> getReaction(UUID id, UUID userId) {
+        String reaction = reactionService.getReaction(id, userId).map(Enum::name).orElse("NONE");
+        return ResponseEntity.status(HttpStatus.OK).body(new CustomApiResponse(HttpStatus.OK, reaction));
+    }
+
+    /**
+     * Increments the view count of a post by its ID and counts the viewer towards its distinct viewers.
+     * Both are buffered and written to the database with the next counter flush.
+     *
+     * @param id     the UUID of the post.
+     * @param viewer a stable identifier of the viewer (user ID or client fingerprint).
      */
-    public void viewPost(UUID id) {
-        Post post = postRepository.findById(id).orElse(null);
-        if (post != null) {
-            post.setViews(post.getViews() + 1);
-            postRepository.save(post);
+    public void viewPost(UUID id, String viewer) {
+        postCounterBuffer.recordView(id);
+        uniqueViewerCounter.recordViewer(id, ByteBuffer.wrap(HashUtils.sha256(viewer)).getLong());
+    }
+
+    /**
+     * Retrieves a page of all posts, newest first.
+     * Pages are found by seeking to the cursor position on the index, so every page costs the same however deep it is.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param size   the maximum number of posts, between 1 and 100.
+     * @return the page of posts.
+     * @throws com.example.demo.exception.InvalidCursorException if the cursor is not valid.
+     */
+    public PostPage getPosts(String cursor, int size) {
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        if (cursor == null) {
+            return PostPage.of(postRepository.findPage(pageable), limit);
         }
+        PostCursor position = PostCursor.decode(cursor);
+        return PostPage.of(postRepository.findPageAfter(position.createdAt(), position.id(), pageable), limit);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, 100));
     }
 
     /**
-     * Retrieves all posts.
+     * Retrieves the trending posts, ranked by their time-decayed score.
      *
-     * @return a list of all posts.
+     * @param limit the maximum number of posts, between 1 and 100.
+     * @return a list of trending posts, highest score first.
      */
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    public List<Post> getTrendingPosts(int limit) {
+        return postRepository.findTrending(PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
     }
 
     /**
      * Retrieves the most popular posts.
+     * The ranking comes from the in-memory popularity index; only the returned posts are loaded.
      *
-     * @return a list of the most popular posts.
+     * @param limit the maximum number of posts.
+     * @return a list of the most popular posts, most popular first.
      */
-    public List<Post> getPopularPosts() {
-        return postRepository.findPostsOrderByPopularity();
+    public List<Post> getPopularPosts(int limit) {
+        List<UUID> ids = popularityIndex.top(limit);
+        Map<UUID, Post> posts = new HashMap<>();
+        for (Post post : postRepository.findAllById(ids)) {
+            posts.put(post.getId(), post);
+        }
+
+        List<Post> popular = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Post post = posts.get(id);
+            if (post != null) {
+                popular.add(post);
+            }
+        }
+        return popular;
     }
 
 }
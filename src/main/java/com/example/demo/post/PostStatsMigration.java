@@ -0,0 +1,82 @@
+package com.example.demo.post;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off migration of the post counters from the posts table to post_stats.
+ * Runs at startup after the schema update has created post_stats; it copies the counters of every post
+ * that has no stats row yet and then drops the likes, dislikes and views columns from posts.
+ * It also sets the score of stats rows written before the score column existed, which the schema update
+ * filled with its default of 0. Once both are done, it changes nothing.
+ */
+@Component
+public class PostStatsMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostStatsMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor to initialize PostStatsMigration with required dependencies.
+     *
+     * @param jdbcTemplate the JDBC template to run the migration statements.
+     */
+    public PostStatsMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Copies the legacy counters to post_stats, drops them from posts and backfills the scores.
+     *
+     * @param args the application arguments (not used).
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (hasColumn("likes") && hasColumn("dislikes") && hasColumn("views")) {
+            migrateCounters();
+        }
+
+        // Atomic per row, so reactions recorded meanwhile by other instances keep the score consistent
+        int rescored = jdbcTemplate.update("update post_stats set score = likes - dislikes where score <> likes - dislikes");
+        if (rescored > 0) {
+            logger.info("Set the score of {} posts from their counters", rescored);
+        }
+    }
+
+    /**
+     * Copies the legacy counters of every post without a stats row to post_stats and drops them from posts.
+     */
+    private void migrateCounters() {
+        // Rows already copied by an interrupted earlier run are skipped, so the migration can simply be rerun
+        int migrated = jdbcTemplate.update("""
+                insert into post_stats (post_id, likes, dislikes, score, views)
+                select p.id, coalesce(p.likes, 0), coalesce(p.dislikes, 0), coalesce(p.likes, 0) - coalesce(p.dislikes, 0),
+                    coalesce(p.views, 0) from posts p
+                where not exists (select 1 from post_stats s where s.post_id = p.id)
+                """);
+
+        jdbcTemplate.execute("alter table posts drop column likes");
+        jdbcTemplate.execute("alter table posts drop column dislikes");
+        jdbcTemplate.execute("alter table posts drop column views");
+        logger.info("Moved the counters of {} posts to post_stats and dropped the legacy counter columns", migrated);
+    }
+
+    /**
+     * Checks whether the posts table still has the given column.
+     *
+     * @param column the column name.
+     * @return true if the column exists, false otherwise.
+     */
+    private boolean hasColumn(String column) {
+        Integer count = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.columns
+                where lower(table_name) = 'posts' and lower(column_name) = ?
+                """, Integer.class, column);
+        return count != null && count > 0;
+    }
+}
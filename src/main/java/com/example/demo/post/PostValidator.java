@@ -0,0 +1,60 @@
+package com.example.demo.post;
+
+import com.example.demo.util.EntityTags;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a post that its entity tag and last modification time are derived from.
+ * Counters are included because they change the representation without changing the version.
+ */
+public record PostValidator(
+        // Version of the post, incremented by every edit.
+        Long version,
+
+        // Timestamp when the post was created.
+        LocalDateTime createdAt,
+
+        // Timestamp when the post was last edited, or null if never.
+        LocalDateTime updatedAt,
+
+        // Timestamp when the counters or the score of the post last changed.
+        LocalDateTime statsUpdatedAt,
+
+        // Counters and score as shown in the representation.
+        Long likes,
+        Long dislikes,
+        Long views,
+        Long uniqueViewers,
+        Double hotScore) {
+
+    /**
+     * Creates the validator of a loaded post.
+     *
+     * @param post the post.
+     * @return the validator.
+     */
+    public static PostValidator of(Post post) {
+        return new PostValidator(post.getVersion(), post.getCreatedAt(), post.getUpdatedAt(), post.getStatsUpdatedAt(),
+                post.getLikes(), post.getDislikes(), post.getViews(), post.getUniqueViewers(), post.getHotScore());
+    }
+
+    /**
+     * Returns the strong entity tag of the post.
+     *
+     * @return the quoted entity tag.
+     */
+    public String eTag() {
+        return EntityTags.strong(version == null ? 0 : version,
+                updatedAt, statsUpdatedAt, likes, dislikes, views, uniqueViewers, hotScore);
+    }
+
+    /**
+     * Returns the time the post or its counters last changed.
+     *
+     * @return the time in epoch milliseconds, or -1 if unknown.
+     */
+    public long lastModified() {
+        return EntityTags.lastModified(createdAt, updatedAt, statsUpdatedAt);
+    }
+}
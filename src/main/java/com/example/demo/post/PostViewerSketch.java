@@ -0,0 +1,31 @@
+package com.example.demo.post;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Entity holding the serialized HyperLogLog sketch of the distinct viewers of a post.
+ * Kept in its own table so that loading a post never reads the sketch.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "post_viewer_sketches")
+public class PostViewerSketch {
+
+    @Id
+    private UUID postId; // The post whose viewers are counted.
+
+    @Column(nullable = false, length = 4096)
+    private byte[] registers; // The sketch registers, see HyperLogLog.
+}
@@ -0,0 +1,10 @@
+package com.example.demo.post;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PostViewerSketchRepository extends JpaRepository<PostViewerSketch, UUID> {
+}
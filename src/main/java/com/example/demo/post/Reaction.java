@@ -0,0 +1,52 @@
+package com.example.demo.post;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the reaction of a user to a post.
+ * The composite primary key allows at most one reaction per user and post.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "post_reactions")
+@IdClass(Reaction.Key.class)
+public class Reaction {
+
+    @Id
+    private UUID postId; // The post that was reacted to.
+
+    @Id
+    private UUID userId; // The user who reacted.
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReactionType type; // Like or dislike.
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt; // Timestamp when the reaction was first recorded.
+
+    /**
+     * Composite primary key of a reaction.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID postId;
+        private UUID userId;
+    }
+}
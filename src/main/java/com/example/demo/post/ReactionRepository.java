@@ -0,0 +1,49 @@
+package com.example.demo.post;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReactionRepository extends JpaRepository<Reaction, Reaction.Key> {
+
+    // Record a reaction unless the user already reacted to the post, returning the number of rows inserted.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into post_reactions (post_id, user_id, type, created_at)
+            values (:postId, :userId, :type, :createdAt)
+            on conflict do nothing""", nativeQuery = true)
+    int insertIfAbsent(UUID postId, UUID userId, String type, LocalDateTime createdAt);
+
+    // Switch an existing reaction to the given type, returning 0 if there is none or it already has that type.
+    @Modifying
+    @Transactional
+    @Query("update Reaction r set r.type = :type where r.postId = :postId and r.userId = :userId and r.type <> :type")
+    int switchType(UUID postId, UUID userId, ReactionType type);
+
+    // Remove a reaction of the given type, returning the number of rows deleted.
+    @Modifying
+    @Transactional
+    @Query("delete from Reaction r where r.postId = :postId and r.userId = :userId and r.type = :type")
+    int deleteByType(UUID postId, UUID userId, ReactionType type);
+
+    // Remove all reactions to a post.
+    @Modifying
+    @Transactional
+    @Query("delete from Reaction r where r.postId = :postId")
+    int deleteAllByPostId(UUID postId);
+
+    // Find the type of a user's reaction to a post.
+    @Query("select r.type from Reaction r where r.postId = :postId and r.userId = :userId")
+    Optional<ReactionType> findType(UUID postId, UUID userId);
+
+    // Count the reactions of one type to a post.
+    long countByPostIdAndType(UUID postId, ReactionType type);
+}
@@ -0,0 +1,183 @@
+package com.example.demo.post;
+
+import com.example.demo.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class for recording the reactions of users to posts.
+ * Each user has at most one reaction per post; the like and dislike counters of the post change
+ * by atomic relative updates in the same transaction as the reaction row.
+ * A Bloom filter of (post, user) pairs lets first reactions skip the lookup for an existing one.
+ * The filter only holds the reactions this instance loaded or recorded, so it never answers reads on its own.
+ */
+@Service
+public class ReactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactionService.class);
+
+    /**
+     * Outcome of a reaction request.
+     */
+    public enum Result {
+        // A new reaction was recorded.
+        ADDED,
+
+        // An existing reaction was switched to the other type.
+        SWITCHED,
+
+        // The user already had this reaction.
+        UNCHANGED
+    }
+
+    private final ReactionRepository reactionRepository;
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BloomFilter reactedUsers;
+
+    /**
+     * Constructor to initialize ReactionService with required dependencies.
+     *
+     * @param reactionRepository the repository to handle reaction persistence.
+     * @param postRepository     the repository to update the post counters.
+     * @param jdbcTemplate       the JDBC template to load existing reactions into the filter.
+     * @param eventPublisher     the publisher of counter change events.
+     * @param expectedReactions  the number of reactions the filter is sized for.
+     * @param falsePositiveRate  the false positive rate of the filter at that size.
+     */
+    public ReactionService(ReactionRepository reactionRepository,
+                           PostRepository postRepository,
+                           JdbcTemplate jdbcTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${application.reactions.expected-reactions}") long expectedReactions,
+                           @Value("${application.reactions.false-positive-rate}") double falsePositiveRate) {
+        this.reactionRepository = reactionRepository;
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.reactedUsers = new BloomFilter(expectedReactions, falsePositiveRate);
+    }
+
+    /**
+     * Loads the existing reactions into the filter once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true) // Lets the driver stream the rows instead of loading them all at once
+    public void loadFilter() {
+        long start = System.nanoTime();
+        long[] count = new long[1];
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(10_000);
+        streamingTemplate.query("select post_id, user_id from post_reactions", (RowCallbackHandler) rs -> {
+            reactedUsers.put(key(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)));
+            count[0]++;
+        });
+        logger.info("Loaded {} reactions into the reaction filter in {} ms",
+                count[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Records a reaction of a user to a post, switching an existing reaction of the other type.
+     *
+     * @param postId the UUID of the post.
+     * @param userId the UUID of the user.
+     * @param type   the reaction type.
+     * @return the outcome of the request.
+     */
+    @Transactional
+    public Result react(UUID postId, UUID userId, ReactionType type) {
+        long key = key(postId, userId);
+        // A negative filter answer means the user has no reaction yet, so try the insert right away
+        if (reactedUsers.mightContain(key) && switchReaction(postId, userId, type)) {
+            return Result.SWITCHED;
+        }
+
+        if (reactionRepository.insertIfAbsent(postId, userId, type.name(), LocalDateTime.now()) == 1) {
+            reactedUsers.put(key);
+            updateCounters(postId, type, 1);
+            return Result.ADDED;
+        }
+
+        // The reaction was recorded concurrently or by another instance
+        reactedUsers.put(key);
+        return switchReaction(postId, userId, type) ? Result.SWITCHED : Result.UNCHANGED;
+    }
+
+    /**
+     * Removes the reaction of a user to a post.
+     *
+     * @param postId the UUID of the post.
+     * @param userId the UUID of the user.
+     * @return the removed reaction type, or empty if the user had no reaction.
+     */
+    @Transactional
+    public Optional<ReactionType> removeReaction(UUID postId, UUID userId) {
+        for (ReactionType type : ReactionType.values()) {
+            if (reactionRepository.deleteByType(postId, userId, type) == 1) {
+                updateCounters(postId, type, -1);
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the reaction of a user to a post.
+     * Always read from the database: a negative filter answer would miss reactions recorded by other instances
+     * since the filter was loaded.
+     *
+     * @param postId the UUID of the post.
+     * @param userId the UUID of the user.
+     * @return the reaction type, or empty if the user has no reaction.
+     */
+    public Optional<ReactionType> getReaction(UUID postId, UUID userId) {
+        return reactionRepository.findType(postId, userId);
+    }
+
+    /**
+     * Removes all reactions to a post.
+     *
+     * @param postId the UUID of the post.
+     */
+    public void removeAllReactions(UUID postId) {
+        reactionRepository.deleteAllByPostId(postId);
+    }
+
+    private boolean switchReaction(UUID postId, UUID userId, ReactionType type) {
+        if (reactionRepository.switchType(postId, userId, type) == 1) {
+            // One reaction moves from the other type to this one
+            addReactions(postId, type == ReactionType.LIKE ? 1 : -1, type == ReactionType.DISLIKE ? 1 : -1);
+            return true;
+        }
+        return false;
+    }
+
+    private void updateCounters(UUID postId, ReactionType type, long delta) {
+        addReactions(postId, type == ReactionType.LIKE ? delta : 0, type == ReactionType.DISLIKE ? delta : 0);
+    }
+
+    private void addReactions(UUID postId, long likes, long dislikes) {
+        postRepository.addReactions(postId, likes, dislikes, LocalDateTime.now());
+        eventPublisher.publishEvent(new PostReactionEvent(postId, likes, dislikes));
+    }
+
+    // Hash of a (post, user) pair used as the filter key.
+    private static long key(UUID postId, UUID userId) {
+        long hash = BloomFilter.mix(postId.getMostSignificantBits() ^ postId.getLeastSignificantBits());
+        hash = BloomFilter.mix(hash ^ userId.getMostSignificantBits());
+        return BloomFilter.mix(hash ^ userId.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.post;
+
+public enum ReactionType {
+    // The user likes the post.
+    LIKE,
+
+    // The user dislikes the post.
+    DISLIKE
+}
@@ -0,0 +1,16 @@
+package com.example.demo.post;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Counters and creation time of a post, the inputs of its trending score.
+ *
+ * @param postId    the UUID of the post.
+ * @param likes     the number of likes.
+ * @param dislikes  the number of dislikes.
+ * @param views     the number of views.
+ * @param createdAt the timestamp when the post was created.
+ */
+public record TrendingInput(UUID postId, long likes, long dislikes, long views, LocalDateTime createdAt) {
+}
@@ -0,0 +1,153 @@
+package com.example.demo.post;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the trending score of posts in post_stats.hot_score.
+ * The score adds the creation time to the order of magnitude of the post's points, so newer posts
+ * outrank older ones with the same points and a post has to gain tenfold points to keep up with one
+ * created {@link #SECONDS_PER_ORDER} seconds later. Because the decay is expressed through the creation time,
+ * the score only changes when the post is interacted with: interactions mark the post dirty and dirty posts
+ * are rescored in periodic batches.
+ */
+@Component
+public class TrendingScores {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingScores.class);
+
+    // Reference point of the time component; any fixed instant works since only differences matter.
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    // Age difference worth a factor of ten in points (12.5 hours).
+    static final double SECONDS_PER_ORDER = 45_000;
+
+    // Points per view; a like or dislike counts as one point.
+    static final double VIEW_WEIGHT = 0.1;
+
+    // Maximum number of posts rescored by one statement batch.
+    private static final int BATCH_SIZE = 500;
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCache postCache;
+
+    // Posts whose counters changed since they were last scored.
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor to initialize TrendingScores with required dependencies.
+     *
+     * @param postRepository the repository to read the scoring inputs.
+     * @param jdbcTemplate   the JDBC template to write the scores.
+     * @param postCache      the post cache to invalidate for rescored posts.
+     */
+    public TrendingScores(PostRepository postRepository, JdbcTemplate jdbcTemplate, PostCache postCache) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postCache = postCache;
+    }
+
+    /**
+     * Computes the trending score of a post.
+     *
+     * @param likes     the number of likes.
+     * @param dislikes  the number of dislikes.
+     * @param views     the number of views.
+     * @param createdAt the timestamp when the post was created.
+     * @return the trending score.
+     */
+    public static double score(long likes, long dislikes, long views, LocalDateTime createdAt) {
+        double points = likes - dislikes + views * VIEW_WEIGHT;
+        double order = Math.log10(Math.max(Math.abs(points), 1));
+        double age = createdAt.toEpochSecond(ZoneOffset.UTC) - EPOCH_SECONDS;
+        return Math.signum(points) * order + age / SECONDS_PER_ORDER;
+    }
+
+    /**
+     * Marks a post for rescoring in the next batch.
+     *
+     * @param postId the UUID of the post.
+     */
+    public void markDirty(UUID postId) {
+        dirty.add(postId);
+    }
+
+    /**
+     * Marks a post for rescoring once its reaction change is committed.
+     *
+     * @param event the reaction event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReaction(PostReactionEvent event) {
+        markDirty(event.postId());
+    }
+
+    /**
+     * Marks the posts that were never scored, i.e. posts created before scores existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markUnscored() {
+        List<UUID> unscored = jdbcTemplate.queryForList("select post_id from post_stats where hot_score = 0", UUID.class);
+        dirty.addAll(unscored);
+        if (!unscored.isEmpty()) {
+            logger.info("Scheduled {} unscored posts for trending scoring", unscored.size());
+        }
+    }
+
+    /**
+     * Rescores the dirty posts.
+     *
+     * @return the number of posts rescored.
+     */
+    @Scheduled(fixedDelayString = "${application.trending.refresh-interval}",
+            initialDelayString = "${application.trending.refresh-interval}")
+    public synchronized int refresh() {
+        int refreshed = 0;
+        Iterator<UUID> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            List<UUID> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                batch.add(iterator.next());
+                // Removed before reading the counters, so a change committed meanwhile marks the post again
+                iterator.remove();
+            }
+
+            try {
+                List<TrendingInput> inputs = postRepository.findTrendingInputs(batch);
+                Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.batchUpdate("update post_stats set hot_score = ?, updated_at = ? where post_id = ?",
+                        inputs, inputs.size(), (statement, input) -> {
+                            statement.setDouble(1, score(input.likes(), input.dislikes(), input.views(), input.createdAt()));
+                            statement.setTimestamp(2, updatedAt);
+                            statement.setObject(3, input.postId());
+                        });
+                for (TrendingInput input : inputs) {
+                    postCache.invalidateCounters(input.postId());
+                }
+                refreshed += inputs.size();
+            } catch (RuntimeException e) {
+                dirty.addAll(batch);
+                logger.warn("Could not rescore {} posts, retrying on the next refresh", batch.size(), e);
+                break;
+            }
+        }
+        return refreshed;
+    }
+}
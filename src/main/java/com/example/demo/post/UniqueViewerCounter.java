@@ -0,0 +1,223 @@
+package com.example.demo.post;
+
+import com.example.demo.util.HyperLogLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the distinct viewers of each post with HyperLogLog sketches.
+ * Views are added to an in-memory sketch per post; sketches that changed are periodically merged into the
+ * stored sketch under a row lock, and the resulting estimate is written to post_stats.unique_viewers.
+ * Because merging is idempotent, several instances can flush into the same stored sketch.
+ * Beyond a maximum number of sketches in memory, viewers of further posts are merged directly.
+ * The estimate has a standard error of about 1.6% ({@link HyperLogLog#STANDARD_ERROR}).
+ */
+@Component
+public class UniqueViewerCounter implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueViewerCounter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostViewerSketchRepository postViewerSketchRepository;
+    private final PostCache postCache;
+    private final int maxPending;
+
+    // Sketches of the views seen by this instance, per post ID.
+    private final Map<UUID, Sketch> sketches = new ConcurrentHashMap<>();
+
+    // Sketches removed from the map in the previous flush; merged once more if a view still reached them.
+    private List<Sketch> retired = new ArrayList<>();
+
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Constructor to initialize UniqueViewerCounter with required dependencies.
+     *
+     * @param jdbcTemplate               the JDBC template to read and write the stored sketches.
+     * @param transactionManager         the transaction manager for the per-post merge.
+     * @param postViewerSketchRepository the repository to delete the sketches of deleted posts.
+     * @param postCache                  the post cache to invalidate when an estimate is written.
+     * @param maxPending                 the maximum number of sketches held in memory.
+     */
+    public UniqueViewerCounter(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               PostViewerSketchRepository postViewerSketchRepository,
+                               PostCache postCache,
+                               @Value("${application.post-counters.max-pending}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postViewerSketchRepository = postViewerSketchRepository;
+        this.postCache = postCache;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records a view of a post. Repeated views by the same viewer usually leave the sketch unchanged
+     * and then cost nothing at the next flush.
+     *
+     * @param postId     the UUID of the post.
+     * @param viewerHash a well-mixed 64-bit hash identifying the viewer.
+     */
+    public void recordViewer(UUID postId, long viewerHash) {
+        Sketch sketch = sketches.get(postId);
+        if (sketch == null && sketches.size() >= maxPending) {
+            overflows.increment();
+            Sketch single = new Sketch(postId);
+            single.registers.offer(viewerHash);
+            store(single); // If the merge fails, only this viewer is missed
+            return;
+        }
+        if (sketch == null) {
+            sketch = sketches.computeIfAbsent(postId, Sketch::new);
+        }
+        if (sketch.registers.offer(viewerHash)) {
+            sketch.dirty = true;
+        }
+    }
+
+    /**
+     * Merges the sketches that changed since the last flush into the stored ones.
+     * Sketches without changes are dropped from memory.
+     *
+     * @return the number of posts whose sketch was written.
+     */
+    @Scheduled(fixedDelayString = "${application.post-counters.flush-interval}",
+            initialDelayString = "${application.post-counters.flush-interval}")
+    public synchronized int flush() {
+        int flushed = 0;
+        for (Sketch sketch : retired) {
+            if (sketch.dirty && store(sketch)) {
+                flushed++;
+            }
+        }
+
+        List<Sketch> idle = new ArrayList<>();
+        for (Sketch sketch : sketches.values()) {
+            if (!sketch.dirty) {
+                idle.add(sketch);
+            } else if (store(sketch)) {
+                flushed++;
+            }
+        }
+        retired = idle;
+        for (Sketch sketch : idle) {
+            sketches.remove(sketch.postId, sketch);
+        }
+        return flushed;
+    }
+
+    /**
+     * Merges one sketch into the stored sketch of its post and updates the estimate.
+     *
+     * @param sketch the sketch to store.
+     * @return true if it was stored, false if the flush failed and will be retried.
+     */
+    private boolean store(Sketch sketch) {
+        // Cleared before the registers are read, so a view racing with the flush is merged again next time
+        sketch.dirty = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("""
+                        insert into post_viewer_sketches (post_id, registers) values (?, ?)
+                        on conflict do nothing
+                        """, sketch.postId, new byte[HyperLogLog.REGISTER_COUNT]);
+                byte[] stored = jdbcTemplate.queryForObject(
+                        "select registers from post_viewer_sketches where post_id = ? for update",
+                        byte[].class, sketch.postId);
+
+                HyperLogLog merged = new HyperLogLog(stored);
+                merged.merge(sketch.registers);
+                jdbcTemplate.update("update post_viewer_sketches set registers = ? where post_id = ?",
+                        merged.toBytes(), sketch.postId);
+                if (jdbcTemplate.update("update post_stats set unique_viewers = ?, updated_at = ? where post_id = ?",
+                        merged.estimate(), Timestamp.valueOf(LocalDateTime.now()), sketch.postId) == 0) {
+                    // The post was deleted in the meantime
+                    jdbcTemplate.update("delete from post_viewer_sketches where post_id = ?", sketch.postId);
+                }
+            });
+            postCache.invalidateCounters(sketch.postId);
+            return true;
+        } catch (RuntimeException e) {
+            sketch.dirty = true;
+            logger.warn("Could not store the viewer sketch of post {}, retrying on the next flush", sketch.postId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the stored sketch of a deleted post, as part of the deleting transaction.
+     *
+     * @param postId the UUID of the post.
+     */
+    public void remove(UUID postId) {
+        postViewerSketchRepository.deleteById(postId);
+    }
+
+    /**
+     * Drops the in-memory sketch of a deleted post once the delete is committed.
+     *
+     * @param event the deletion event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(PostDeletedEvent event) {
+        sketches.remove(event.postId());
+    }
+
+    /**
+     * Merges the remaining sketches when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        flush();
+        flush(); // Merges the sketches retired by the first flush
+    }
+
+    /**
+     * Registers the sketch metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("post.viewers.sketches", sketches, Map::size)
+                .description("Posts with a viewer sketch held in memory")
+                .register(registry);
+        FunctionCounter.builder("post.viewers.overflows", overflows, LongAdder::sum)
+                .description("Viewers merged directly because the sketches in memory were at the maximum")
+                .register(registry);
+    }
+
+    private static final class Sketch {
+        private final UUID postId;
+        private final HyperLogLog registers = new HyperLogLog();
+
+        // Set when a view changed the registers since they were last stored.
+        private volatile boolean dirty;
+
+        private Sketch(UUID postId) {
+            this.postId = postId;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.user;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for the last login time of users.
+ * Only the latest login per user is kept; pending timestamps are written periodically in one batch
+ * and once more on shutdown. When the buffer is full, logins of users not yet in it are written directly.
+ */
+@Component
+public class LastLoginBuffer implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginBuffer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final int maxPending;
+
+    // Latest unwritten login time per user ID.
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder rowsFlushed = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Constructor to initialize LastLoginBuffer with required dependencies.
+     *
+     * @param jdbcTemplate   the JDBC template to write the login times.
+     * @param userRepository the repository to write login times directly when the buffer is full.
+     * @param maxPending     the maximum number of users with a pending login time.
+     */
+    public LastLoginBuffer(JdbcTemplate jdbcTemplate,
+                           UserRepository userRepository,
+                           @Value("${application.last-login.max-pending}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records a login of a user.
+     *
+     * @param userId    the UUID of the user.
+     * @param loginTime the time of the login.
+     */
+    public void record(UUID userId, LocalDateTime loginTime) {
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            overflows.increment();
+            userRepository.updateLastLogin(userId, loginTime);
+            return;
+        }
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * Writes the pending login times to the database as one batch.
+     * A login time is never replaced by an older one, e.g. one written directly by another instance.
+     *
+     * @return the number of users whose login time was written.
+     */
+    @Scheduled(fixedDelayString = "${application.last-login.flush-interval}",
+            initialDelayString = "${application.last-login.flush-interval}")
+    public synchronized int flush() {
+        List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, LocalDateTime> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("""
+                            update users set last_login = ?
+                            where id = ? and (last_login is null or last_login < ?)""",
+                    batch, batch.size(), (statement, entry) -> {
+                        Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+                        statement.setTimestamp(1, loginTime);
+                        statement.setObject(2, entry.getKey());
+                        statement.setTimestamp(3, loginTime);
+                    });
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush the last login of {} users, retrying on the next flush", batch.size(), e);
+            return 0;
+        }
+
+        // Users who logged in again meanwhile keep their newer time for the next flush
+        for (Map.Entry<UUID, LocalDateTime> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        rowsFlushed.add(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Flushes the remaining login times when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Returns how long the oldest pending login time has been waiting to be written.
+     *
+     * @return the flush lag in seconds, 0 if nothing is pending.
+     */
+    public double flushLagSeconds() {
+        LocalDateTime oldest = null;
+        for (LocalDateTime loginTime : pending.values()) {
+            if (oldest == null || loginTime.isBefore(oldest)) {
+                oldest = loginTime;
+            }
+        }
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    public int pendingUsers() {
+        return pending.size();
+    }
+
+    /**
+     * Registers the buffer metrics with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.last-login.pending", this, LastLoginBuffer::pendingUsers)
+                .description("Users with a login time not yet written")
+                .register(registry);
+        Gauge.builder("auth.last-login.flush.lag", this, LastLoginBuffer::flushLagSeconds)
+                .description("Age of the oldest login time not yet written")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("auth.last-login.flushed", rowsFlushed, LongAdder::sum)
+                .description("Login times written by buffer flushes")
+                .register(registry);
+        FunctionCounter.builder("auth.last-login.overflows", overflows, LongAdder::sum)
+                .description("Login times written directly because the buffer was full")
+                .register(registry);
+    }
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 
@@ -42,6 +43,12 @@ public class User implements Serializable {
     @NotEmpty
     private String password;
 
+    // Version of the user, incremented by every edit; the last login is written without changing it.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Timestamp for when the user was created, not updatable.
     @CreatedDate
     @Column(nullable = false, updatable = false)
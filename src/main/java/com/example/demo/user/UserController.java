@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -31,14 +32,22 @@ public class UserController {
         return userService.getAllUsers();
     }
 
-    // Endpoint to retrieve a user by their ID.
+    // Endpoint to retrieve a user by their ID. Conditional requests are answered before the user is loaded.
     @Operation(summary = "Get a user by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "User not modified"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable UUID id) {
+    public ResponseEntity<User> getUserById(@PathVariable UUID id, WebRequest webRequest) {
+        UserValidator validator = userService.getUserValidator(id);
+        if (validator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(validator.eTag(), validator.lastModified())) {
+            return null; // The status and validators are already set on the response
+        }
         User user = userService.getUserById(id);
         return user != null ? ResponseEntity.ok(user) : ResponseEntity.notFound().build();
     }
@@ -1,12 +1,30 @@
 package com.example.demo.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     // Find a user by their email address.
     User findByEmail(String email);
+
+    // Check whether a user with the given email address exists.
+    boolean existsByEmail(String email);
+
+    // Find the fields the entity tag and last modification time of a user are derived from.
+    @Query("select new com.example.demo.user.UserValidator(u.version, u.createdAt, u.updatedAt, u.lastLogin) from User u where u.id = :id")
+    Optional<UserValidator> findValidatorById(UUID id);
+
+    // Set the last login timestamp of a user without loading the entity.
+    @Modifying
+    @Transactional
+    @Query("update User u set u.lastLogin = :lastLogin where u.id = :id")
+    int updateLastLogin(UUID id, LocalDateTime lastLogin);
 }
@@ -1,23 +1,32 @@
 package com.example.demo.user;
 
+import com.example.demo.auth.UserAuth;
 import com.example.demo.auth.UserAuthRepository;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.util.BoundedTtlCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final UserAuthRepository userAuthRepository;
+    private final BoundedTtlCache<String, UserAuth> userAuthCache;
+    private final TokenEpochService tokenEpochService;
 
-    // Constructor to initialize UserRepository and UserAuthRepository.
-    public UserService(UserRepository userRepository, UserAuthRepository userAuthRepository) {
+    // Constructor to initialize UserRepository, UserAuthRepository, the authentication details cache and the token epochs.
+    public UserService(UserRepository userRepository, UserAuthRepository userAuthRepository,
+                       BoundedTtlCache<String, UserAuth> userAuthCache, TokenEpochService tokenEpochService) {
         this.userRepository = userRepository;
         this.userAuthRepository = userAuthRepository;
+        this.userAuthCache = userAuthCache;
+        this.tokenEpochService = tokenEpochService;
     }
 
     // Retrieve all users from the repository.
@@ -30,13 +39,22 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id).orElse(null);
     }
 
+    // Retrieve the entity tag and last modification time of a user without loading the user, or null if not found.
+    public UserValidator getUserValidator(UUID id) {
+        return userRepository.findValidatorById(id).orElse(null);
+    }
+
     // Delete a user by their ID, return true if successful.
+    // The user's tokens are revoked, since stateless authentication trusts their claims without loading the user;
+    // the epoch row is kept so the old tokens stay revoked.
     public boolean deleteUser(UUID id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return userRepository.findById(id)
+                .map(user -> {
+                    userRepository.deleteById(id);
+                    userAuthCache.invalidate(user.getEmail());
+                    tokenEpochService.revokeAll(id);
+                    return true;
+                }).orElse(false);
     }
 
     // Update a user by their ID with the provided updated user details.
@@ -44,14 +62,27 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id)
                 .map(user -> {
                     updatedUser.setId(id); // Ensure the ID is not changed
+                    updatedUser.setVersion(user.getVersion()); // Replaces the stored user instead of inserting a new one
                     userRepository.save(updatedUser);
+                    // Drop cached authentication details under both the old and the new email
+                    userAuthCache.invalidate(user.getEmail());
+                    userAuthCache.invalidate(updatedUser.getEmail());
+                    // Tokens carry the email and role as claims, so tokens issued before such a change are revoked
+                    if (user.getRole() != updatedUser.getRole() || !Objects.equals(user.getEmail(), updatedUser.getEmail())) {
+                        tokenEpochService.revokeAll(id);
+                    }
                     return true;
                 }).orElse(false);
     }
 
+    // Load authentication details by email address, served from the cache when possible.
+    public UserAuth loadUserAuth(String email) {
+        return userAuthCache.get(email, userAuthRepository::findByEmail);
+    }
+
     // Load user details by their email address.
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userAuthRepository.findByEmail(email);
+        return loadUserAuth(email);
     }
 }
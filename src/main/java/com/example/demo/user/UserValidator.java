@@ -0,0 +1,41 @@
+package com.example.demo.user;
+
+import com.example.demo.util.EntityTags;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a user that its entity tag and last modification time are derived from.
+ * The last login is included because it is written without changing the version.
+ */
+public record UserValidator(
+        // Version of the user, incremented by every edit.
+        Long version,
+
+        // Timestamp for when the user was created.
+        LocalDateTime createdAt,
+
+        // Timestamp for when the user was last updated, or null if never.
+        LocalDateTime updatedAt,
+
+        // Timestamp for when the user last logged in, or null if never.
+        LocalDateTime lastLogin) {
+
+    /**
+     * Returns the strong entity tag of the user.
+     *
+     * @return the quoted entity tag.
+     */
+    public String eTag() {
+        return EntityTags.strong(version == null ? 0 : version, lastLogin);
+    }
+
+    /**
+     * Returns the time the user last changed or logged in.
+     *
+     * @return the time in epoch milliseconds, or -1 if unknown.
+     */
+    public long lastModified() {
+        return EntityTags.lastModified(createdAt, updatedAt, lastLogin);
+    }
+}
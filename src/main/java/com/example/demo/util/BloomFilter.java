@@ -0,0 +1,89 @@
+package com.example.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over 64-bit hashes.
+ * Answers "definitely absent" or "possibly present" in constant memory; elements cannot be removed.
+ * The filter is sized for an expected number of elements and false positive rate;
+ * inserting more elements than expected raises the false positive rate gradually.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Constructor to create a Bloom filter.
+     *
+     * @param expectedInsertions the number of elements the filter is sized for.
+     * @param falsePositiveRate  the false positive rate at the expected number of elements.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Adds an element to the filter.
+     *
+     * @param hash a well-mixed 64-bit hash of the element.
+     */
+    public void put(long hash) {
+        long h2 = mix(hash) | 1; // Odd step, so the probes never collapse onto one bit
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether an element may have been added.
+     *
+     * @param hash a well-mixed 64-bit hash of the element.
+     * @return false if the element was definitely never added, true if it possibly was.
+     */
+    public boolean mightContain(long hash) {
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading every input bit over the whole result.
+     *
+     * @param value the value to mix.
+     * @return the mixed value.
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache with a maximum size and a time-to-live per entry. Hit, miss and eviction counts are
+ * published as Micrometer cache meters tagged with the cache name.
+ * Reads take no lock: entries live in a concurrent map, and a hit only marks its entry as recently used.
+ * Beyond the maximum size, entries are evicted in insertion order, except that entries used since they were last
+ * considered get a second chance (the CLOCK approximation of least recently used).
+ * Concurrent misses of the same key share one load.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class BoundedTtlCache<K, V> implements MeterBinder {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    // Entries in eviction order, possibly including entries already replaced or removed from the map.
+    private final Queue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockSize = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Loads in flight per key; an invalidation of the key marks its load so that the loaded value is not cached.
+    private final ConcurrentHashMap<K, Load<V>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor to create a cache.
+     *
+     * @param name    the cache name used in metrics.
+     * @param maxSize the maximum number of entries.
+     * @param ttl     how long an entry stays valid after it was stored.
+     */
+    public BoundedTtlCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the cached value for a key.
+     *
+     * @param key the key.
+     * @return the cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.increment();
+            if (!entry.used) {
+                entry.used = true; // Only written once per pass of the clock, so hits do not contend on it
+            }
+            return entry.value;
+        }
+        if (entry != null && entries.remove(key, entry)) {
+            evictions.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * The loader runs outside any lock; concurrent misses of the key wait for the same load instead of running
+     * the loader again, unless the key was invalidated after that load started. Null results are not cached.
+     *
+     * @param key    the key.
+     * @param loader the function to load the value on a miss.
+     * @return the cached or loaded value, or null if the loader returned null.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        Load<V> load = new Load<>();
+        while (true) {
+            Load<V> running = loads.putIfAbsent(key, load);
+            if (running == null) {
+                break;
+            }
+            if (!running.invalidated) {
+                return running.await();
+            }
+            // The running load may return data from before the invalidation, so load again
+            if (loads.replace(key, running, load)) {
+                break;
+            }
+        }
+
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loads.remove(key, load);
+            load.result.completeExceptionally(e);
+            throw e;
+        }
+        if (value != null) {
+            Entry<K, V> entry = new Entry<>(key, value, System.nanoTime() + ttlNanos);
+            // Decided under the lock of the key in the map, so an invalidation either precedes it or removes the entry
+            if (entries.compute(key, (k, current) -> load.invalidated ? current : entry) == entry) {
+                added(entry);
+            }
+        }
+        loads.remove(key, load);
+        load.result.complete(value);
+        return value;
+    }
+
+    /**
+     * Stores a value in the cache. A load of the key still in flight is not cached over it.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(key, value, System.nanoTime() + ttlNanos);
+        entries.compute(key, (k, current) -> {
+            markLoad(k);
+            return entry;
+        });
+        added(entry);
+    }
+
+    /**
+     * Removes a key from the cache. A load of the key still in flight is not cached.
+     *
+     * @param key the key.
+     */
+    public void invalidate(K key) {
+        entries.compute(key, (k, current) -> {
+            markLoad(k);
+            return null;
+        });
+    }
+
+    /**
+     * Removes all entries from the cache. Loads still in flight are not cached.
+     */
+    public void invalidateAll() {
+        for (Load<V> load : loads.values()) {
+            load.invalidated = true;
+        }
+        entries.clear();
+    }
+
+    private void markLoad(K key) {
+        Load<V> load = loads.get(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    /**
+     * Queues a new entry for eviction and evicts entries while the cache is over its maximum size.
+     * Also drops queued entries that were replaced or removed, so the queue stays within twice the maximum size.
+     * Only one thread evicts at a time; others skip it, leaving the cache briefly over its size.
+     */
+    private void added(Entry<K, V> entry) {
+        clock.add(entry);
+        clockSize.incrementAndGet();
+        if ((entries.size() <= maxSize && clockSize.get() <= 2 * maxSize) || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            while (entries.size() > maxSize || clockSize.get() > 2 * maxSize) {
+                Entry<K, V> head = clock.poll();
+                if (head == null) {
+                    return;
+                }
+                clockSize.decrementAndGet();
+                if (entries.get(head.key) != head) {
+                    continue; // Replaced or removed since it was queued
+                }
+                if (entries.size() <= maxSize || head.used) {
+                    head.used = false;
+                    clock.add(head);
+                    clockSize.incrementAndGet();
+                } else if (entries.remove(head.key, head)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current number of entries, including expired ones not yet removed.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Registers the cache meters with the given registry.
+     *
+     * @param registry the meter registry.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, BoundedTtlCache::evictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+
+        // Set by a hit since the clock last passed this entry.
+        private volatile boolean used;
+
+        private Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // A load of one key in flight, shared by the misses that arrive while it runs.
+    private static final class Load<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        // Set when the key was invalidated or replaced after the load started.
+        private volatile boolean invalidated;
+
+        private V await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
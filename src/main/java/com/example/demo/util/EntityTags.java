@@ -0,0 +1,60 @@
+package com.example.demo.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+public class EntityTags {
+
+    /**
+     * Builds a strong entity tag from the version of an entity and any state the version does not cover,
+     * such as counters written without changing the version.
+     *
+     * @param version the version of the entity.
+     * @param state   the other values the representation depends on.
+     * @return the quoted entity tag.
+     */
+    public static String strong(long version, Object... state) {
+        byte[] digest = HashUtils.sha256(Arrays.toString(state));
+        return "\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+    }
+
+    /**
+     * Builds a strong entity tag from the serialized representation itself.
+     *
+     * @param body the serialized representation.
+     * @return the quoted entity tag.
+     */
+    public static String of(byte[] body) {
+        return "\"" + HexFormat.of().formatHex(HashUtils.sha256(body), 0, 16) + "\"";
+    }
+
+    /**
+     * Derives the entity tag of the gzip-coded variant of a representation, so the compressed and the identity
+     * body never share a strong entity tag.
+     *
+     * @param eTag the quoted entity tag of the representation.
+     * @return the quoted entity tag of its gzip-coded variant.
+     */
+    public static String gzip(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Returns the latest of the given timestamps as a Last-Modified value.
+     * Timestamps are local date-times of the application's time zone, as written by the entities.
+     *
+     * @param timestamps the timestamps, any of which may be null.
+     * @return the latest timestamp in epoch milliseconds, or -1 if all are null.
+     */
+    public static long lastModified(LocalDateTime... timestamps) {
+        LocalDateTime latest = null;
+        for (LocalDateTime timestamp : timestamps) {
+            if (timestamp != null && (latest == null || timestamp.isAfter(latest))) {
+                latest = timestamp;
+            }
+        }
+        return latest == null ? -1 : latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
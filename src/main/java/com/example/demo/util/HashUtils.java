@@ -0,0 +1,34 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class HashUtils {
+
+    /**
+     * Computes the SHA-256 digest of a string.
+     *
+     * @param value the string to hash, encoded as UTF-8
+     * @return the 32-byte digest
+     */
+    public static byte[] sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the SHA-256 digest of a byte array.
+     *
+     * @param value the bytes to hash
+     * @return the 32-byte digest
+     */
+    public static byte[] sha256(byte[] value) {
+        try {
+            // MessageDigest instances are not thread-safe, so a new one is created for every call.
+            return MessageDigest.getInstance("SHA-256").digest(value);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
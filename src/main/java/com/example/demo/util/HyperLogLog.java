@@ -0,0 +1,112 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct elements in constant memory.
+ * Uses 2^12 one-byte registers (4 KB), giving a standard error of about 1.6%.
+ * Sketches are merged by taking the register-wise maximum, so merging is commutative and idempotent
+ * and sketches built on different instances can be combined in any order.
+ */
+public class HyperLogLog {
+
+    // Number of index bits; 2^PRECISION registers.
+    public static final int PRECISION = 12;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    // Relative standard error of the estimate, 1.04 / sqrt(REGISTER_COUNT).
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTER_COUNT);
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    /**
+     * Constructor to create an empty sketch.
+     */
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    /**
+     * Constructor to restore a sketch from its serialized registers.
+     *
+     * @param registers the registers, as returned by {@link #toBytes()}.
+     * @throws IllegalArgumentException if the length does not match the precision.
+     */
+    public HyperLogLog(byte[] registers) {
+        if (registers.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("Expected " + REGISTER_COUNT + " registers but got " + registers.length);
+        }
+        this.registers = registers.clone();
+    }
+
+    /**
+     * Adds an element to the sketch.
+     *
+     * @param hash a well-mixed 64-bit hash of the element.
+     * @return true if the sketch changed, false otherwise.
+     */
+    public synchronized boolean offer(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first set bit in the remaining bits; the sentinel bit caps the rank
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other the sketch to merge.
+     * @return true if this sketch changed, false otherwise.
+     */
+    public boolean merge(HyperLogLog other) {
+        byte[] otherRegisters = other.toBytes();
+        boolean changed = false;
+        synchronized (this) {
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                if (otherRegisters[i] > registers[i]) {
+                    registers[i] = otherRegisters[i];
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Estimates the number of distinct elements added to the sketch.
+     *
+     * @return the estimated cardinality.
+     */
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns a copy of the registers for storage.
+     *
+     * @return the serialized sketch.
+     */
+    public synchronized byte[] toBytes() {
+        return Arrays.copyOf(registers, REGISTER_COUNT);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token-bucket rate limiter keyed by string.
+ * Each key's bucket is a single AtomicLong holding the time at which the bucket will be full again
+ * (the generic cell rate algorithm), updated with compare-and-set. Keys are spread over independent
+ * stripes with a bounded number of keys each; a key whose bucket has refilled carries no state,
+ * so idle keys are evicted without losing anything. When a stripe is full, a few of its keys are sampled
+ * and the one whose bucket refills soonest makes room for the new one, so flooding a stripe with fresh keys
+ * is unlikely to push out a key that has used up more of its bucket than they have. Only adding and removing
+ * keys takes the stripe's lock, and making room costs the same however many keys the stripe holds.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+
+    // Keys compared when a full stripe makes room; stripes this small are compared in full.
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final long permitIntervalNanos;
+    private final long burstToleranceNanos;
+    private final List<Stripe> stripes = new ArrayList<>(STRIPES);
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder displaced = new LongAdder();
+
+    /**
+     * Constructor to create a rate limiter.
+     *
+     * @param capacity     the number of attempts a key may make in a burst.
+     * @param refillPeriod the time it takes to regain one attempt.
+     * @param maxKeys      the maximum number of keys tracked at once.
+     */
+    public RateLimiter(int capacity, Duration refillPeriod, int maxKeys) {
+        this.permitIntervalNanos = refillPeriod.toNanos();
+        this.burstToleranceNanos = (capacity - 1) * permitIntervalNanos;
+        int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new Stripe(maxKeysPerStripe));
+        }
+    }
+
+    /**
+     * Consumes one attempt for the key if its bucket is not empty.
+     * If the key's stripe is full, an idle or the least limited of a sample of its keys is removed to track the new key.
+     *
+     * @param key the key, e.g. an email address or a remote address.
+     * @return true if the attempt is allowed, false if the key is over its limit.
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripeFor(key);
+
+        AtomicLong fullAt = stripe.buckets.get(key);
+        if (fullAt == null) {
+            fullAt = add(stripe, key, now);
+        }
+
+        while (true) {
+            long current = fullAt.get();
+            long base = current - now > 0 ? current : now;
+            if (base - now > burstToleranceNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (fullAt.compareAndSet(current, base + permitIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes every key whose bucket has refilled.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int slot = stripe.size - 1; slot >= 0; slot--) {
+                    if (stripe.buckets.get(stripe.keys[slot]).get() - now <= 0) {
+                        stripe.remove(slot);
+                    }
+                }
+            }
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long displacedCount() {
+        return displaced.sum();
+    }
+
+    public int trackedKeys() {
+        return stripes.stream().mapToInt(stripe -> stripe.buckets.size()).sum();
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+    }
+
+    /**
+     * Starts tracking a key, making room in its stripe first if the stripe is full.
+     */
+    private AtomicLong add(Stripe stripe, String key, long now) {
+        synchronized (stripe) {
+            AtomicLong existing = stripe.buckets.get(key);
+            if (existing != null) {
+                return existing; // Added concurrently
+            }
+            if (stripe.size == stripe.keys.length) {
+                makeRoom(stripe, now);
+            }
+            AtomicLong bucket = new AtomicLong(now);
+            stripe.keys[stripe.size++] = key;
+            stripe.buckets.put(key, bucket);
+            return bucket;
+        }
+    }
+
+    /**
+     * Removes the sampled key whose bucket will be full first, which loses the least of what the sample has recorded.
+     * An idle key among the sample is removed right away.
+     */
+    private void makeRoom(Stripe stripe, long now) {
+        boolean sampled = stripe.size > EVICTION_SAMPLES;
+        int samples = sampled ? EVICTION_SAMPLES : stripe.size;
+        int soonest = -1;
+        long soonestFullAt = 0;
+        for (int i = 0; i < samples; i++) {
+            int slot = sampled ? ThreadLocalRandom.current().nextInt(stripe.size) : i;
+            long fullAt = stripe.buckets.get(stripe.keys[slot]).get();
+            if (fullAt - now <= 0) {
+                stripe.remove(slot);
+                return;
+            }
+            if (soonest < 0 || fullAt - soonestFullAt < 0) {
+                soonest = slot;
+                soonestFullAt = fullAt;
+            }
+        }
+        stripe.remove(soonest);
+        displaced.increment();
+    }
+
+    /**
+     * The keys of one stripe: a map for lock-free lookups, and the same keys in a dense array to sample from.
+     * The map and the array are only changed together, while holding the stripe's lock.
+     */
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final String[] keys;
+        private int size;
+
+        private Stripe(int maxKeys) {
+            this.keys = new String[maxKeys];
+        }
+
+        // Removes the key in a slot, moving the last key into it.
+        private void remove(int slot) {
+            buckets.remove(keys[slot]);
+            size--;
+            keys[slot] = keys[size];
+            keys[size] = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body serialized once and kept ready to send, optionally also gzip-compressed,
+ * together with an entity tag for conditional requests.
+ */
+public record SerializedResponse(
+        // The body as UTF-8 JSON.
+        byte[] json,
+
+        // The body gzip-compressed, or null if it was too small to be worth compressing.
+        byte[] gzip,
+
+        // Strong entity tag derived from the body, or from the state of the entity it was serialized from.
+        String eTag) {
+
+    /**
+     * Creates a serialized response, compressing bodies of at least the given size.
+     *
+     * @param json            the body as UTF-8 JSON.
+     * @param gzipMinimumSize the minimum body size in bytes that is also kept compressed.
+     * @return the serialized response.
+     */
+    public static SerializedResponse of(byte[] json, int gzipMinimumSize) {
+        return of(json, EntityTags.of(json), gzipMinimumSize);
+    }
+
+    /**
+     * Creates a serialized response with a given entity tag, compressing bodies of at least the given size.
+     *
+     * @param json            the body as UTF-8 JSON.
+     * @param eTag            the quoted entity tag of the body.
+     * @param gzipMinimumSize the minimum body size in bytes that is also kept compressed.
+     * @return the serialized response.
+     */
+    public static SerializedResponse of(byte[] json, String eTag, int gzipMinimumSize) {
+        if (json.length < gzipMinimumSize) {
+            return new SerializedResponse(json, null, eTag);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+        return new SerializedResponse(json, compressed.toByteArray(), eTag);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.demo;
+
+import com.example.demo.post.Post;
+import com.example.demo.post.PostController;
+import com.example.demo.post.PostExportService;
+import com.example.demo.post.PostImportService;
+import com.example.demo.post.PostResponseCache;
+import com.example.demo.post.PostService;
+import com.example.demo.post.PostValidator;
+import com.example.demo.user.User;
+import com.example.demo.user.UserController;
+import com.example.demo.user.UserService;
+import com.example.demo.user.UserValidator;
+import com.example.demo.util.BoundedTtlCache;
+import com.example.demo.util.EntityTags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares full responses with revalidations answered by 304 Not Modified for posts and users.
+ * Service calls are mocked with a fixed delay standing in for one database round trip.
+ * The benchmark asserts the bytes sent and the loads saved by revalidation; timings are only logged.
+ */
+public class ConditionalGetBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConditionalGetBenchmarkTest.class);
+
+    private static final long SIMULATED_ROUND_TRIP_NANOS = 200_000L;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+
+    private PostService postService;
+    private UserService userService;
+    private MockMvc postMvc;
+    private MockMvc userMvc;
+    private Post post;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        postService = Mockito.mock(PostService.class);
+        userService = Mockito.mock(UserService.class);
+        PostResponseCache postResponseCache = new PostResponseCache(
+                new BoundedTtlCache<>("response", 100, Duration.ofMinutes(1)),
+                JsonMapper.builder().findAndAddModules().build(), 1024);
+        postMvc = MockMvcBuilders.standaloneSetup(new PostController(postService, Mockito.mock(PostImportService.class),
+                Mockito.mock(PostExportService.class), postResponseCache, new ObjectMapper())).build();
+        userMvc = MockMvcBuilders.standaloneSetup(new UserController(userService)).build();
+
+        post = new Post();
+        post.setId(UUID.randomUUID());
+        post.setTitle("Conditional requests");
+        post.setContent("Body ".repeat(2_000));
+        post.setAuthor(UUID.randomUUID());
+        post.setImages(List.of("a.png", "b.png"));
+        post.setVersion(3L);
+        post.setLikes(10L);
+        post.setDislikes(1L);
+        post.setViews(100L);
+        post.setUniqueViewers(80L);
+        post.setHotScore(1.5);
+        post.setCreatedAt(LocalDateTime.now().minusDays(1));
+        post.setStatsUpdatedAt(LocalDateTime.now().minusHours(1));
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        user.setPassword("hash");
+        user.setVersion(1L);
+        user.setCreatedAt(LocalDateTime.now().minusDays(1));
+        user.setLastLogin(LocalDateTime.now().minusHours(1));
+
+        Mockito.when(postService.getPostValidator(post.getId())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return PostValidator.of(post);
+        });
+        Mockito.when(postService.getPostById(post.getId())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return post;
+        });
+        Mockito.when(userService.getUserValidator(user.getId())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return validatorOf(user);
+        });
+        Mockito.when(userService.getUserById(user.getId())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return user;
+        });
+    }
+
+    @Test
+    public void testMatchingETagIsAnsweredWithoutBody() throws Exception {
+        MockHttpServletResponse full = postMvc.perform(get("/api/v1/posts/" + post.getId(), null)).andReturn().getResponse();
+        String eTag = full.getHeader(HttpHeaders.ETAG);
+        assertEquals(200, full.getStatus());
+        assertNotNull(eTag);
+        assertNotNull(full.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        MockHttpServletResponse revalidated = postMvc.perform(get("/api/v1/posts/" + post.getId(), eTag))
+                .andReturn().getResponse();
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+        assertEquals(eTag, revalidated.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, revalidated.getHeader(HttpHeaders.VARY));
+        Mockito.verify(postService, Mockito.times(2)).viewPost(ArgumentMatchers.eq(post.getId()), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testGzipResponseHasItsOwnETag() throws Exception {
+        String url = "/api/v1/posts/" + post.getId();
+        MockHttpServletResponse identity = postMvc.perform(get(url, null)).andReturn().getResponse();
+        MockHttpServletResponse gzip = postMvc.perform(get(url, null).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(EntityTags.gzip(identity.getHeader(HttpHeaders.ETAG)), gzip.getHeader(HttpHeaders.ETAG));
+
+        // A tag of one coding does not validate the other
+        assertEquals(200, postMvc.perform(get(url, identity.getHeader(HttpHeaders.ETAG))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse().getStatus());
+        assertEquals(304, postMvc.perform(get(url, gzip.getHeader(HttpHeaders.ETAG))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    public void testCachedBodyOfOlderStateIsNotSentWithNewerETag() throws Exception {
+        String url = "/api/v1/posts/" + post.getId();
+        postMvc.perform(get(url, null)).andReturn();
+
+        // Changed without invalidating the response cache, as through another instance
+        post.setLikes(11L);
+        MockHttpServletResponse response = postMvc.perform(get(url, null)).andReturn().getResponse();
+
+        assertEquals(PostValidator.of(post).eTag(), response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("\"likes\":11"));
+    }
+
+    @Test
+    public void testGzipIsOnlySentWhenAccepted() throws Exception {
+        String url = "/api/v1/posts/" + post.getId();
+
+        assertEquals("gzip", contentEncoding(url, "gzip, deflate"));
+        assertEquals("gzip", contentEncoding(url, "br;q=1.0, GZIP;q=0.5"));
+        assertEquals("gzip", contentEncoding(url, "*"));
+        assertNull(contentEncoding(url, "gzip;q=0"));
+        assertNull(contentEncoding(url, "gzip; q=0.000, identity"));
+        assertNull(contentEncoding(url, "*;q=0.5, gzip;q=0"));
+        assertNull(contentEncoding(url, "identity"));
+        assertNull(contentEncoding(url, null));
+    }
+
+    @Test
+    public void testCounterChangeChangesETag() {
+        String before = PostValidator.of(post).eTag();
+        post.setViews(post.getViews() + 1);
+
+        assertNotEquals(before, PostValidator.of(post).eTag());
+    }
+
+    @Test
+    public void testUserIsNotLoadedForMatchingETag() throws Exception {
+        String eTag = validatorOf(user).eTag();
+
+        MockHttpServletResponse response = userMvc.perform(get("/api/v1/users/" + user.getId(), eTag))
+                .andReturn().getResponse();
+
+        assertEquals(304, response.getStatus());
+        Mockito.verify(userService, Mockito.never()).getUserById(ArgumentMatchers.any());
+
+        user.setLastLogin(LocalDateTime.now());
+        assertEquals(200, userMvc.perform(get("/api/v1/users/" + user.getId(), eTag)).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    public void benchmarkRevalidation() throws Exception {
+        String postUrl = "/api/v1/posts/" + post.getId();
+        String userUrl = "/api/v1/users/" + user.getId();
+        String postETag = PostValidator.of(post).eTag();
+        String userETag = validatorOf(user).eTag();
+
+        long[] postFull = measure(postMvc, postUrl, null);
+        // The serialized post is cached, so it is loaded once
+        Mockito.verify(postService, Mockito.times(1)).getPostById(post.getId());
+        Mockito.clearInvocations(postService);
+        long[] postNotModified = measure(postMvc, postUrl, postETag);
+        Mockito.verify(postService, Mockito.never()).getPostById(ArgumentMatchers.any());
+
+        long[] userFull = measure(userMvc, userUrl, null);
+        Mockito.verify(userService, Mockito.times(WARMUP + ITERATIONS)).getUserById(user.getId());
+        Mockito.clearInvocations(userService);
+        long[] userNotModified = measure(userMvc, userUrl, userETag);
+        Mockito.verify(userService, Mockito.never()).getUserById(ArgumentMatchers.any());
+        Mockito.verify(userService, Mockito.times(WARMUP + ITERATIONS)).getUserValidator(user.getId());
+
+        logger.info("GET post: 200 {} bytes {} ns, 304 {} bytes {} ns",
+                postFull[0], postFull[1], postNotModified[0], postNotModified[1]);
+        logger.info("GET user: 200 {} bytes {} ns, 304 {} bytes {} ns",
+                userFull[0], userFull[1], userNotModified[0], userNotModified[1]);
+        assertEquals(0, postNotModified[0]);
+        assertEquals(0, userNotModified[0]);
+        assertTrue(postFull[0] > post.getContent().length());
+        assertTrue(userFull[0] > 0);
+    }
+
+    /**
+     * Returns the body size of the last response and the average time per request in nanoseconds.
+     */
+    private long[] measure(MockMvc mvc, String url, String eTag) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mvc.perform(get(url, eTag));
+        }
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mvc.perform(get(url, eTag)).andReturn().getResponse().getContentAsByteArray().length;
+        }
+        return new long[]{bytes, (System.nanoTime() - start) / ITERATIONS};
+    }
+
+    private String contentEncoding(String url, String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = get(url, null);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return postMvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private static MockHttpServletRequestBuilder get(String url, String eTag) {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(url);
+        return eTag == null ? request : request.header(HttpHeaders.IF_NONE_MATCH, eTag);
+    }
+
+    private static UserValidator validatorOf(User user) {
+        return new UserValidator(user.getVersion(), user.getCreatedAt(), user.getUpdatedAt(), user.getLastLogin());
+    }
+}
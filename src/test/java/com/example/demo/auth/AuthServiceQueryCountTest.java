@@ -0,0 +1,187 @@
+package com.example.demo.auth;
+
+import com.example.demo.H2DataJpaTest;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpochRepository;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.jwt.TokenRepository;
+import com.example.demo.user.LastLoginBuffer;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
+import com.example.demo.util.BoundedTtlCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements the login path sends to the users table of an in-memory database in PostgreSQL mode.
+ * Every statement prepared through the datasource is recorded, including the JDBC batches of the last login buffer.
+ */
+@H2DataJpaTest
+@Import(AuthServiceQueryCountTest.StatementRecorder.class)
+public class AuthServiceQueryCountTest {
+
+    private static final Pattern SELECT_USERS = Pattern.compile("^select\\b.*\\bfrom users\\b.*", Pattern.DOTALL);
+    private static final Pattern UPDATE_USERS = Pattern.compile("^update users\\b.*", Pattern.DOTALL);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAuthRepository userAuthRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TokenEpochRepository tokenEpochRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statements;
+
+    private CredentialExecutor credentialExecutor;
+    private LastLoginBuffer lastLoginBuffer;
+    private AuthService authService;
+    private User storedUser;
+
+    @BeforeEach
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        credentialExecutor = new CredentialExecutor(1, 4, 5_000);
+        lastLoginBuffer = new LastLoginBuffer(jdbcTemplate, userRepository, 100);
+        TokenEpochService tokenEpochService = new TokenEpochService(tokenEpochRepository,
+                new BoundedTtlCache<>("tokenEpoch", 100, Duration.ofMinutes(5)));
+
+        JwtService jwtService = new JwtService(tokenRepository, tokenEpochService);
+        ReflectionTestUtils.setField(jwtService, "secretKey", "4bb6d1dfbafb64a681139d1586b6f1160d18159afd57c8c79136d7490630407c");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpire", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpire", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        UserService userService = new UserService(userRepository, userAuthRepository,
+                new BoundedTtlCache<>("userAuth", 100, Duration.ofMinutes(5)), tokenEpochService);
+        authService = new AuthService(passwordEncoder, jwtService, tokenRepository, userRepository, tokenEpochService,
+                userService, credentialExecutor, new LoginThrottle(1_000, 1, 1_000, 1, 1_000), lastLoginBuffer);
+
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe." + System.nanoTime() + "@example.com");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        storedUser = userRepository.save(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        credentialExecutor.destroy();
+    }
+
+    @Test
+    public void testLoginReadsAndWritesUsersAtMostOnce() {
+        statements.clear();
+        authService.authenticate(credentials(), new MockHttpServletResponse());
+        lastLoginBuffer.flush();
+
+        assertEquals(1, statements.count(SELECT_USERS), statements::toString);
+        assertEquals(1, statements.count(UPDATE_USERS), statements::toString);
+        assertNotNull(userRepository.findById(storedUser.getId()).orElseThrow().getLastLogin());
+    }
+
+    @Test
+    public void testRepeatedLoginDoesNotReadUsers() {
+        authService.authenticate(credentials(), new MockHttpServletResponse());
+        lastLoginBuffer.flush();
+
+        statements.clear();
+        authService.authenticate(credentials(), new MockHttpServletResponse());
+        lastLoginBuffer.flush();
+
+        assertEquals(0, statements.count(SELECT_USERS), statements::toString);
+        assertEquals(1, statements.count(UPDATE_USERS), statements::toString);
+    }
+
+    private UserAuth credentials() {
+        UserAuth request = new UserAuth();
+        request.setEmail(storedUser.getEmail());
+        request.setPassword("secret");
+        return request;
+    }
+
+    /**
+     * Wraps the datasource so every statement prepared on its connections is recorded, lower-cased.
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return record(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return record(super.getConnection(username, password));
+                }
+            };
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        long count(Pattern pattern) {
+            return statements.stream().filter(sql -> pattern.matcher(sql).matches()).count();
+        }
+
+        @Override
+        public String toString() {
+            return String.join("\n", statements);
+        }
+
+        private Connection record(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String sql) {
+                            statements.add(sql.strip().toLowerCase());
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
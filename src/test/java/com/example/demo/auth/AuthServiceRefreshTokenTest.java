@@ -0,0 +1,134 @@
+package com.example.demo.auth;
+
+import com.example.demo.H2DataJpaTest;
+import com.example.demo.jwt.AuthenticationResponse;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpochRepository;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.jwt.TokenRepository;
+import com.example.demo.user.LastLoginBuffer;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
+import com.example.demo.util.BoundedTtlCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exchanges refresh tokens for new token pairs against an in-memory database in PostgreSQL mode.
+ */
+@H2DataJpaTest
+public class AuthServiceRefreshTokenTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAuthRepository userAuthRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TokenEpochRepository tokenEpochRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CredentialExecutor credentialExecutor;
+    private AuthService authService;
+    private User storedUser;
+
+    @BeforeEach
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        credentialExecutor = new CredentialExecutor(1, 4, 5_000);
+        TokenEpochService tokenEpochService = new TokenEpochService(tokenEpochRepository,
+                new BoundedTtlCache<>("tokenEpoch", 100, Duration.ofMinutes(5)));
+
+        JwtService jwtService = new JwtService(tokenRepository, tokenEpochService);
+        ReflectionTestUtils.setField(jwtService, "secretKey", "4bb6d1dfbafb64a681139d1586b6f1160d18159afd57c8c79136d7490630407c");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpire", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpire", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        UserService userService = new UserService(userRepository, userAuthRepository,
+                new BoundedTtlCache<>("userAuth", 100, Duration.ofMinutes(5)), tokenEpochService);
+        authService = new AuthService(passwordEncoder, jwtService, tokenRepository, userRepository, tokenEpochService,
+                userService, credentialExecutor, new LoginThrottle(1_000, 1, 1_000, 1, 1_000),
+                new LastLoginBuffer(jdbcTemplate, userRepository, 100));
+
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe." + System.nanoTime() + "@example.com");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        storedUser = userRepository.save(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        credentialExecutor.destroy();
+    }
+
+    @Test
+    public void testValidRefreshTokenGetsNewTokens() {
+        AuthenticationResponse login = login();
+
+        ResponseEntity<AuthenticationResponse> refreshed = refresh(login.refreshToken());
+
+        assertEquals(HttpStatus.OK, refreshed.getStatusCode());
+        assertNotNull(refreshed.getBody().accessToken());
+        assertNotNull(refreshed.getBody().refreshToken());
+        assertNotEquals(login.refreshToken(), refreshed.getBody().refreshToken());
+    }
+
+    @Test
+    public void testRevokedRefreshTokenIsRejected() {
+        AuthenticationResponse login = login();
+        authService.revokeAllSessions(List.of(storedUser.getId()));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(login.refreshToken()).getStatusCode());
+    }
+
+    @Test
+    public void testUsedRefreshTokenIsRejected() {
+        AuthenticationResponse login = login();
+        assertEquals(HttpStatus.OK, refresh(login.refreshToken()).getStatusCode());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(login.refreshToken()).getStatusCode());
+    }
+
+    @Test
+    public void testAccessTokenIsNotAcceptedAsRefreshToken() {
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(login().accessToken()).getStatusCode());
+    }
+
+    private AuthenticationResponse login() {
+        UserAuth request = new UserAuth();
+        request.setEmail(storedUser.getEmail());
+        request.setPassword("secret");
+        return authService.authenticate(request, new MockHttpServletResponse());
+    }
+
+    private ResponseEntity<AuthenticationResponse> refresh(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/refresh_token");
+        request.addHeader("Authorization", "Bearer " + token);
+        return authService.refreshToken(request, new MockHttpServletResponse());
+    }
+}
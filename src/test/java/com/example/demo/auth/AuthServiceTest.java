@@ -0,0 +1,120 @@
+package com.example.demo.auth;
+
+import com.example.demo.exception.InvalidCredentialsException;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.jwt.TokenRepository;
+import com.example.demo.user.LastLoginBuffer;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
+import com.example.demo.util.BoundedTtlCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the users table queries issued by the login and registration paths.
+ */
+public class AuthServiceTest {
+
+    private UserRepository userRepository;
+    private UserAuthRepository userAuthRepository;
+    private CredentialExecutor credentialExecutor;
+    private LastLoginBuffer lastLoginBuffer;
+    private AuthService authService;
+    private UserAuth storedUser;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        userAuthRepository = Mockito.mock(UserAuthRepository.class);
+        JwtService jwtService = Mockito.mock(JwtService.class);
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        credentialExecutor = new CredentialExecutor(1, 4, 5_000);
+        lastLoginBuffer = Mockito.mock(LastLoginBuffer.class);
+
+        UserService userService = new UserService(userRepository, userAuthRepository,
+                new BoundedTtlCache<>("userAuth", 100, Duration.ofMinutes(5)), Mockito.mock(TokenEpochService.class));
+        authService = new AuthService(passwordEncoder, jwtService, Mockito.mock(TokenRepository.class),
+                userRepository, Mockito.mock(TokenEpochService.class), userService, credentialExecutor,
+                new LoginThrottle(1_000, 1, 1_000, 1, 1_000), lastLoginBuffer);
+
+        storedUser = new UserAuth(UUID.randomUUID(), "john.doe@example.com", passwordEncoder.encode("secret"), Role.USER);
+        Mockito.when(userAuthRepository.findByEmail(storedUser.getEmail())).thenReturn(storedUser);
+        Mockito.when(jwtService.generateAccessToken(ArgumentMatchers.any())).thenReturn("access");
+        Mockito.when(jwtService.generateRefreshToken(ArgumentMatchers.any())).thenReturn("refresh");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        credentialExecutor.destroy();
+    }
+
+    @Test
+    public void testLoginReadsUserOnceAndBuffersLastLogin() {
+        authService.authenticate(credentials("secret"), new MockHttpServletResponse());
+
+        Mockito.verify(userAuthRepository).findByEmail(storedUser.getEmail());
+        Mockito.verify(lastLoginBuffer).record(ArgumentMatchers.eq(storedUser.getId()), ArgumentMatchers.any());
+        Mockito.verify(userRepository).getReferenceById(storedUser.getId());
+        Mockito.verifyNoMoreInteractions(userAuthRepository, userRepository);
+    }
+
+    @Test
+    public void testRepeatedLoginIsServedFromCache() {
+        authService.authenticate(credentials("secret"), new MockHttpServletResponse());
+        Mockito.clearInvocations(userAuthRepository);
+
+        authService.authenticate(credentials("secret"), new MockHttpServletResponse());
+
+        Mockito.verifyNoInteractions(userAuthRepository);
+    }
+
+    @Test
+    public void testWrongPasswordIsRejectedWithoutWrites() {
+        assertThrows(InvalidCredentialsException.class,
+                () -> authService.authenticate(credentials("wrong"), new MockHttpServletResponse()));
+
+        Mockito.verify(userAuthRepository).findByEmail(storedUser.getEmail());
+        Mockito.verifyNoInteractions(userRepository, lastLoginBuffer);
+    }
+
+    @Test
+    public void testRegisterDoesNotReadUserBack() {
+        User request = new User();
+        request.setName("Jane Doe");
+        request.setEmail("jane.doe@example.com");
+        request.setPassword("secret");
+        Mockito.when(userRepository.save(ArgumentMatchers.any(User.class))).thenAnswer(invocation -> {
+            User saved = invocation.getArgument(0);
+            saved.setId(UUID.randomUUID());
+            return saved;
+        });
+
+        assertNotNull(authService.register(request));
+
+        Mockito.verify(userRepository).existsByEmail(request.getEmail());
+        Mockito.verify(userRepository).save(ArgumentMatchers.any(User.class));
+        Mockito.verify(userRepository).getReferenceById(ArgumentMatchers.any());
+        Mockito.verifyNoMoreInteractions(userRepository);
+        Mockito.verifyNoInteractions(userAuthRepository);
+    }
+
+    private UserAuth credentials(String password) {
+        UserAuth request = new UserAuth();
+        request.setEmail(storedUser.getEmail());
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.auth;
+
+import com.example.demo.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialExecutorTest {
+
+    private static final long TIMEOUT_MILLIS = 300;
+
+    private CredentialExecutor credentialExecutor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setUp() {
+        credentialExecutor = new CredentialExecutor(1, 1, TIMEOUT_MILLIS);
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        credentialExecutor.destroy();
+    }
+
+    @Test
+    public void testAbandonedCheckFreesItsQueueSlotAndIsSkipped() throws Exception {
+        // Occupies the only hashing thread and, like BCrypt, ignores interruption
+        AtomicBoolean released = new AtomicBoolean();
+        CountDownLatch hashing = new CountDownLatch(1);
+        callers.execute(() -> {
+            try {
+                credentialExecutor.execute(() -> {
+                    hashing.countDown();
+                    while (!released.get()) {
+                        Thread.onSpinWait();
+                    }
+                    return true;
+                });
+            } catch (ServiceBusyException e) {
+                // Its caller gives up after the timeout, but the check keeps the thread until released
+            }
+        });
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger abandonedRuns = new AtomicInteger();
+        assertThrows(ServiceBusyException.class, () -> credentialExecutor.execute(abandonedRuns::incrementAndGet));
+
+        // The abandoned check no longer holds the only queue slot, so this one is queued instead of rejected
+        callers.execute(() -> {
+            try {
+                Thread.sleep(TIMEOUT_MILLIS / 3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            released.set(true);
+        });
+        assertEquals("hashed", credentialExecutor.execute(() -> "hashed"));
+        assertEquals(0, abandonedRuns.get());
+    }
+}
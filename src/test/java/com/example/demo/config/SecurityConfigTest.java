@@ -0,0 +1,71 @@
+package com.example.demo.config;
+
+import com.example.demo.auth.AuthController;
+import com.example.demo.auth.AuthService;
+import com.example.demo.auth.LoginThrottle;
+import com.example.demo.jwt.AuthenticationResponse;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks which authentication endpoints the security filter chain lets through without an authenticated user.
+ */
+@WebMvcTest(AuthController.class)
+@Import(SecurityConfig.class)
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private CustomLogoutHandler customLogoutHandler;
+
+    @MockBean
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(loginThrottle.tryAcquireAddress(ArgumentMatchers.any())).thenReturn(true);
+    }
+
+    @Test
+    public void testRefreshTokenRequestReachesAuthService() throws Exception {
+        // The filter does not accept the refresh token as a bearer token, so the request stays unauthenticated
+        Mockito.when(authService.refreshToken(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new AuthenticationResponse("access", "refresh", "Token refreshed successfully")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/auth/refresh_token")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer refresh-token"))
+                .andExpect(status().isOk());
+        Mockito.verify(authService).refreshToken(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testRevokeStillRequiresAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/auth/revoke"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.filter;
+
+import com.example.demo.auth.Role;
+import com.example.demo.auth.UserAuth;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpoch;
+import com.example.demo.jwt.TokenEpochRepository;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.jwt.TokenRepository;
+import com.example.demo.util.BoundedTtlCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares per-request authentication cost of the database-backed and the stateless filter modes.
+ * Repository calls are mocked with a fixed delay standing in for one database round trip;
+ * token epochs are served from the cache in both modes.
+ * Timings are only logged; the assertions count the database calls, which do not depend on the machine.
+ */
+public class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilterBenchmarkTest.class);
+
+    private static final String SECRET = "4bb6d1dfbafb64a681139d1586b6f1160d18159afd57c8c79136d7490630407c";
+    private static final long ACCESS_TOKEN_EXPIRE = 86_400_000L;
+    private static final long SIMULATED_ROUND_TRIP_NANOS = 200_000L;
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+
+    private TokenRepository tokenRepository;
+    private TokenEpochRepository tokenEpochRepository;
+    private UserDetailsService userDetailsService;
+    private TokenEpochService tokenEpochService;
+    private JwtService jwtService;
+    private UserAuth user;
+    private String accessToken;
+
+    @BeforeEach
+    public void setUp() {
+        tokenRepository = Mockito.mock(TokenRepository.class);
+        tokenEpochRepository = Mockito.mock(TokenEpochRepository.class);
+        userDetailsService = Mockito.mock(UserDetailsService.class);
+        tokenEpochService = new TokenEpochService(tokenEpochRepository,
+                new BoundedTtlCache<>("tokenEpoch", 100, Duration.ofMinutes(5)));
+
+        jwtService = new JwtService(tokenRepository, tokenEpochService);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpire", ACCESS_TOKEN_EXPIRE);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpire", ACCESS_TOKEN_EXPIRE);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = new UserAuth(UUID.randomUUID(), "john.doe@example.com", "hash", Role.USER);
+
+        Mockito.when(userDetailsService.loadUserByUsername(user.getEmail())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return user;
+        });
+        Mockito.when(tokenEpochRepository.findById(user.getId())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(SIMULATED_ROUND_TRIP_NANOS);
+            return Optional.empty();
+        });
+
+        // Issuing the token loads the user's epoch into the cache
+        accessToken = jwtService.generateAccessToken(user);
+        Mockito.clearInvocations(tokenEpochRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testStatelessModeAuthenticatesWithoutDatabase() throws Exception {
+        authenticate(new JwtAuthenticationFilter(jwtService, userDetailsService, true));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(user.getId(), ((UserAuth) authentication.getPrincipal()).getId());
+        assertEquals("USER", authentication.getAuthorities().iterator().next().getAuthority());
+        Mockito.verifyNoInteractions(tokenRepository, tokenEpochRepository, userDetailsService);
+    }
+
+    @Test
+    public void testStatelessModeRejectsRevokedToken() throws Exception {
+        Mockito.when(tokenEpochRepository.incrementEpoch(user.getId())).thenReturn(1);
+        Mockito.when(tokenEpochRepository.findById(user.getId())).thenReturn(Optional.of(new TokenEpoch(user.getId(), 1)));
+        tokenEpochService.revokeAll(user.getId());
+
+        authenticate(new JwtAuthenticationFilter(jwtService, userDetailsService, true));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testStatelessModeRejectsRefreshToken() throws Exception {
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        authenticate(new JwtAuthenticationFilter(jwtService, userDetailsService, true), refreshToken);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void benchmarkPerRequestLatency() throws Exception {
+        JwtAuthenticationFilter database = new JwtAuthenticationFilter(jwtService, userDetailsService, false);
+        JwtAuthenticationFilter stateless = new JwtAuthenticationFilter(jwtService, userDetailsService, true);
+
+        long databaseNanos = measure(database);
+        Mockito.verify(userDetailsService, Mockito.times(WARMUP + ITERATIONS)).loadUserByUsername(user.getEmail());
+        Mockito.clearInvocations(userDetailsService, tokenRepository, tokenEpochRepository);
+
+        long statelessNanos = measure(stateless);
+        Mockito.verifyNoInteractions(userDetailsService, tokenRepository, tokenEpochRepository);
+
+        logger.info("JwtAuthenticationFilter per request: database={} us, stateless={} us",
+                databaseNanos / 1_000, statelessNanos / 1_000);
+    }
+
+    private long measure(JwtAuthenticationFilter filter) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            authenticate(filter);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            authenticate(filter);
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private void authenticate(JwtAuthenticationFilter filter) throws Exception {
+        authenticate(filter, accessToken);
+    }
+
+    private void authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
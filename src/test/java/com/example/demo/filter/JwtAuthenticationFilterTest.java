@@ -0,0 +1,169 @@
+package com.example.demo.filter;
+
+import com.example.demo.auth.Role;
+import com.example.demo.auth.UserAuth;
+import com.example.demo.auth.UserAuthRepository;
+import com.example.demo.jwt.JwtService;
+import com.example.demo.jwt.TokenEpoch;
+import com.example.demo.jwt.TokenEpochRepository;
+import com.example.demo.jwt.TokenEpochService;
+import com.example.demo.jwt.TokenRepository;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
+import com.example.demo.util.BoundedTtlCache;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks which tokens the authentication filter accepts as bearer tokens.
+ * Requests that end up unauthenticated are answered like SecurityConfig does, with 401 from the entry point.
+ */
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "4bb6d1dfbafb64a681139d1586b6f1160d18159afd57c8c79136d7490630407c";
+
+    private JwtService jwtService;
+    private UserDetailsService userDetailsService;
+    private TokenEpochRepository tokenEpochRepository;
+    private UserRepository userRepository;
+    private UserService userService;
+    private UserAuth user;
+
+    @BeforeEach
+    public void setUp() {
+        // Revoking moves the user to the next epoch
+        AtomicLong epoch = new AtomicLong();
+        tokenEpochRepository = Mockito.mock(TokenEpochRepository.class);
+        Mockito.when(tokenEpochRepository.findById(Mockito.any())).thenAnswer(invocation -> epoch.get() == 0
+                ? Optional.empty() : Optional.of(new TokenEpoch(invocation.getArgument(0), epoch.get())));
+        Mockito.when(tokenEpochRepository.incrementEpoch(Mockito.any())).thenAnswer(invocation -> {
+            epoch.incrementAndGet();
+            return 1;
+        });
+        TokenEpochService tokenEpochService = new TokenEpochService(tokenEpochRepository,
+                new BoundedTtlCache<>("tokenEpoch", 100, Duration.ofMinutes(5)));
+
+        jwtService = new JwtService(Mockito.mock(TokenRepository.class), tokenEpochService);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpire", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpire", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = new UserAuth(UUID.randomUUID(), "john.doe@example.com", "hash", Role.USER);
+        userDetailsService = Mockito.mock(UserDetailsService.class);
+        Mockito.when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+
+        userRepository = Mockito.mock(UserRepository.class);
+        userService = new UserService(userRepository, Mockito.mock(UserAuthRepository.class),
+                new BoundedTtlCache<>("userAuth", 100, Duration.ofMinutes(5)), tokenEpochService);
+        User stored = new User();
+        stored.setId(user.getId());
+        stored.setEmail(user.getEmail());
+        stored.setRole(Role.USER);
+        stored.setVersion(1L);
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(stored));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAccessTokenIsAccepted() throws Exception {
+        assertEquals(HttpStatus.OK.value(), call(jwtService.generateAccessToken(user)));
+    }
+
+    @Test
+    public void testRefreshTokenIsRejectedAsBearerToken() throws Exception {
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), call(jwtService.generateRefreshToken(user)));
+    }
+
+    @Test
+    public void testDeletedUsersTokenIsRejectedInStatelessMode() throws Exception {
+        String token = jwtService.generateAccessToken(user);
+        assertEquals(HttpStatus.OK.value(), call(token, true));
+
+        assertTrue(userService.deleteUser(user.getId()));
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), call(token, true));
+    }
+
+    @Test
+    public void testDemotedUsersTokenIsRejectedInStatelessMode() throws Exception {
+        user = new UserAuth(user.getId(), user.getEmail(), "hash", Role.ADMIN);
+        String token = jwtService.generateAccessToken(user);
+        assertEquals(HttpStatus.OK.value(), call(token, true));
+
+        User demoted = new User();
+        demoted.setEmail(user.getEmail());
+        demoted.setRole(Role.USER);
+        assertTrue(userService.updateUser(user.getId(), demoted));
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), call(token, true));
+    }
+
+    @Test
+    public void testUnchangedRoleAndEmailKeepTokensValid() throws Exception {
+        String token = jwtService.generateAccessToken(user);
+
+        User renamed = new User();
+        renamed.setName("Jane Doe");
+        renamed.setEmail(user.getEmail());
+        renamed.setRole(Role.USER);
+        assertTrue(userService.updateUser(user.getId(), renamed));
+
+        assertEquals(HttpStatus.OK.value(), call(token, true));
+        Mockito.verify(tokenEpochRepository, Mockito.never()).incrementEpoch(user.getId());
+    }
+
+    private int call(String token) throws Exception {
+        return call(token, false);
+    }
+
+    private int call(String token, boolean stateless) throws Exception {
+        SecurityContextHolder.clearContext();
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, stateless);
+        HttpStatusEntryPoint entryPoint = new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED);
+        Filter requireAuthentication = (request, response, chain) -> {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                entryPoint.commence((HttpServletRequest) request, (HttpServletResponse) response, null);
+                return;
+            }
+            chain.doFilter(request, response);
+        };
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                // Stands in for the endpoint, which answers 200
+            }
+        }, filter, requireAuthentication).doFilter(request, response);
+        return response.getStatus();
+    }
+}
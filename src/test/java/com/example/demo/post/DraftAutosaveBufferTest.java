@@ -0,0 +1,101 @@
+package com.example.demo.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DraftAutosaveBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DraftAutosaveBuffer buffer;
+
+    // Title and content of every draft row written to the database, in order.
+    private final List<String[]> written = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        buffer = new DraftAutosaveBuffer(jdbcTemplate, Mockito.mock(PostCache.class), 2);
+
+        Mockito.when(jdbcTemplate.batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<Object> drafts = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object draft : drafts) {
+                String[] row = new String[2];
+                PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+                Mockito.doAnswer(call -> {
+                    row[(int) call.getArgument(0) - 1] = call.getArgument(1);
+                    return null;
+                }).when(statement).setString(ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+                setter.setValues(statement, draft);
+                written.add(row);
+            }
+            return new int[0][];
+        });
+    }
+
+    @Test
+    public void testRepeatedAutosavesAreWrittenOnce() {
+        UUID postId = UUID.randomUUID();
+        UUID author = UUID.randomUUID();
+        for (int i = 0; i < 20; i++) {
+            buffer.record(postId, author, new DraftUpdate(i == 0 ? "Title" : null, "Content " + i));
+        }
+
+        assertTrue(buffer.isPendingFor(postId, author));
+        assertFalse(buffer.isPendingFor(postId, UUID.randomUUID()));
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.flush());
+
+        assertEquals(1, written.size());
+        assertArrayEquals(new String[]{"Title", "Content 19"}, written.get(0));
+    }
+
+    @Test
+    public void testDraftIsWrittenBeforePublish() {
+        UUID postId = UUID.randomUUID();
+        buffer.record(postId, UUID.randomUUID(), new DraftUpdate("Title", "Content"));
+
+        buffer.flush(postId);
+
+        assertEquals(1, written.size());
+        assertEquals(0, buffer.pendingDrafts());
+    }
+
+    @Test
+    public void testFullBufferWritesDirectly() {
+        UUID author = UUID.randomUUID();
+        buffer.record(UUID.randomUUID(), author, new DraftUpdate("One", null));
+        buffer.record(UUID.randomUUID(), author, new DraftUpdate("Two", null));
+        buffer.record(UUID.randomUUID(), author, new DraftUpdate("Three", null));
+
+        assertEquals(2, buffer.pendingDrafts());
+        assertEquals(1, written.size());
+        assertEquals("Three", written.get(0)[0]);
+    }
+
+    @Test
+    public void testFailedFlushKeepsDrafts() {
+        UUID postId = UUID.randomUUID();
+        buffer.record(postId, UUID.randomUUID(), new DraftUpdate("Title", "Content"));
+        Mockito.doThrow(new IllegalStateException("database down")).when(jdbcTemplate).batchUpdate(
+                ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+
+        assertEquals(0, buffer.flush());
+        assertThrows(IllegalStateException.class, () -> buffer.flush(postId));
+        assertEquals(1, buffer.pendingDrafts());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PopularityIndexTest {
+
+    private PostRepository postRepository;
+    private PopularityIndex index;
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+    private final UUID outside = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        Mockito.when(postRepository.findTopScores(ArgumentMatchers.any(Pageable.class))).thenReturn(List.of(
+                new PostScore(first, 30), new PostScore(second, 20), new PostScore(third, 10), new PostScore(outside, 5)));
+        index = new PopularityIndex(postRepository, 3, 300_000);
+        index.reseed();
+        Mockito.clearInvocations(postRepository);
+    }
+
+    @Test
+    public void testTopIsServedFromMemory() {
+        assertEquals(List.of(first, second), index.top(2));
+        assertEquals(List.of(first, second, third), index.top(50));
+        Mockito.verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    public void testReactionsReorderIndexedPosts() {
+        index.onReaction(new PostReactionEvent(third, 25, 0));
+        index.onReaction(new PostReactionEvent(first, 0, 1));
+
+        assertEquals(List.of(third, first, second), index.top(3));
+        Mockito.verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    public void testPostOutsideIndexEntersWhenItOvertakesTheLast() {
+        Mockito.when(postRepository.findScoresByIdIn(Set.of(outside))).thenReturn(List.of(new PostScore(outside, 15)));
+        index.onReaction(new PostReactionEvent(outside, 10, 0));
+        Mockito.verifyNoInteractions(postRepository);
+
+        index.reseedIfDue();
+        assertEquals(List.of(first, second, outside), index.top(3));
+        Mockito.verify(postRepository, Mockito.never()).findTopScores(ArgumentMatchers.any(Pageable.class));
+    }
+
+    @Test
+    public void testReactionsOutsideIndexAreReadInOneQueryPerCheck() {
+        UUID other = UUID.randomUUID();
+        Mockito.when(postRepository.findScoresByIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(new PostScore(outside, 7), new PostScore(other, 1)));
+        for (int i = 0; i < 10; i++) {
+            index.onReaction(new PostReactionEvent(outside, 1, 0));
+            index.onReaction(new PostReactionEvent(other, 1, 0));
+        }
+        index.onReaction(new PostReactionEvent(UUID.randomUUID(), 0, 1)); // A falling score cannot enter
+
+        index.reseedIfDue();
+        index.reseedIfDue();
+        Mockito.verify(postRepository, Mockito.times(1)).findScoresByIdIn(Set.of(outside, other));
+        assertEquals(List.of(first, second, third), index.top(3));
+    }
+
+    @Test
+    public void testDroppedPostBelowCeilingRequestsReseed() {
+        // The second post now scores below the best post outside the index, whose position is unknown
+        index.onReaction(new PostReactionEvent(second, 0, 18));
+        assertEquals(List.of(first, third), index.top(2));
+        index.reseedIfDue();
+        Mockito.verifyNoInteractions(postRepository);
+
+        // Served as indexed until the scheduler reseeds
+        assertEquals(List.of(first, third, second), index.top(3));
+        Mockito.verifyNoInteractions(postRepository);
+
+        Mockito.when(postRepository.findTopScores(ArgumentMatchers.any(Pageable.class))).thenReturn(List.of(
+                new PostScore(first, 30), new PostScore(third, 10), new PostScore(outside, 5), new PostScore(second, 2)));
+        index.reseedIfDue();
+        assertEquals(List.of(first, third, outside), index.top(3));
+    }
+
+    @Test
+    public void testReactionDuringReseedIsReplayed() {
+        // The reaction commits after the ranking was read, so the rebuilt index misses it
+        Mockito.when(postRepository.findTopScores(ArgumentMatchers.any(Pageable.class))).thenAnswer(invocation -> {
+            index.onReaction(new PostReactionEvent(third, 25, 0));
+            return List.of(new PostScore(first, 30), new PostScore(second, 20), new PostScore(third, 10),
+                    new PostScore(outside, 5));
+        });
+        Mockito.when(postRepository.findScoresByIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(new PostScore(third, 35)));
+
+        index.reseed();
+
+        assertEquals(List.of(third, first, second), index.top(3));
+        Mockito.verify(postRepository).findScoresByIdIn(Set.of(third));
+    }
+
+    @Test
+    public void testDeletedPostIsRemoved() {
+        index.remove(first);
+
+        assertEquals(List.of(second, third), index.top(2));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.post;
+
+import com.example.demo.util.BoundedTtlCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostCacheTest {
+
+    private PostRepository postRepository;
+    private BoundedTtlCache<UUID, Post> cache;
+    private PostCache postCache;
+
+    @BeforeEach
+    public void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        cache = new BoundedTtlCache<>("post", 100, Duration.ofMinutes(1));
+        postCache = new PostCache(postRepository, cache, Mockito.mock(PostResponseCache.class));
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromMemory() {
+        Post post = post();
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(post, postCache.get(post.getId()));
+        }
+
+        Mockito.verify(postRepository, Mockito.times(1)).findWithImagesById(post.getId());
+        assertEquals(9, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void testReactionInvalidatesPost() {
+        Post post = post();
+        postCache.get(post.getId());
+
+        postCache.onReaction(new PostReactionEvent(post.getId(), 1, 0));
+        postCache.get(post.getId());
+
+        Mockito.verify(postRepository, Mockito.times(2)).findWithImagesById(post.getId());
+    }
+
+    @Test
+    public void testMissingPostIsNotCached() {
+        UUID id = UUID.randomUUID();
+        Mockito.when(postRepository.findWithImagesById(id)).thenReturn(Optional.empty());
+
+        assertNull(postCache.get(id));
+        assertNull(postCache.get(id));
+
+        Mockito.verify(postRepository, Mockito.times(2)).findWithImagesById(id);
+    }
+
+    private Post post() {
+        Post post = new Post();
+        post.setId(UUID.randomUUID());
+        post.setTitle("Cached");
+        Mockito.when(postRepository.findWithImagesById(post.getId())).thenReturn(Optional.of(post));
+        return post;
+    }
+}
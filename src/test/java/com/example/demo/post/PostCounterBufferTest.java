@@ -0,0 +1,123 @@
+package com.example.demo.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostCounterBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PostCounterBuffer buffer;
+
+    // Views written to the database per post.
+    private final Map<UUID, Long> written = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        buffer = new PostCounterBuffer(jdbcTemplate, Mockito.mock(TrendingScores.class), Mockito.mock(PostCache.class), 100);
+
+        Mockito.when(jdbcTemplate.batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<Object> deltas = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object delta : deltas) {
+                long[] views = new long[1];
+                UUID[] postId = new UUID[1];
+                PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+                Mockito.doAnswer(call -> {
+                    views[0] = call.getArgument(1);
+                    return null;
+                }).when(statement).setLong(ArgumentMatchers.eq(1), ArgumentMatchers.anyLong());
+                Mockito.doAnswer(call -> {
+                    postId[0] = call.getArgument(1);
+                    return null;
+                }).when(statement).setObject(ArgumentMatchers.eq(3), ArgumentMatchers.any());
+                setter.setValues(statement, delta);
+
+                written.merge(postId[0], views[0], Long::sum);
+            }
+            return new int[0][];
+        });
+    }
+
+    @Test
+    public void testConcurrentIncrementsAreFlushedAsOneUpdatePerPost() throws Exception {
+        UUID hot = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.recordView(hot);
+                }
+                buffer.recordView(other);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(2, buffer.flush());
+
+        assertEquals(80_000L, written.get(hot));
+        assertEquals(8L, written.get(other));
+        Mockito.verify(jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyCollection(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testIdlePostsAreDroppedAfterFlush() {
+        UUID postId = UUID.randomUUID();
+        buffer.recordView(postId);
+
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.flush());
+        assertEquals(0, buffer.pendingPosts());
+
+        buffer.recordView(postId);
+        buffer.destroy();
+        assertEquals(2L, written.get(postId));
+    }
+
+    @Test
+    public void testFailedFlushKeepsDeltas() {
+        UUID postId = UUID.randomUUID();
+        buffer.recordView(postId);
+        Mockito.doThrow(new IllegalStateException("database down")).when(jdbcTemplate).batchUpdate(
+                ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.pendingPosts());
+    }
+
+    @Test
+    public void testViewsBeyondMaxPendingAreWrittenDirectly() {
+        buffer = new PostCounterBuffer(jdbcTemplate, Mockito.mock(TrendingScores.class), Mockito.mock(PostCache.class), 1);
+        UUID buffered = UUID.randomUUID();
+        UUID overflow = UUID.randomUUID();
+        buffer.recordView(buffered);
+        buffer.recordView(overflow);
+        buffer.recordView(buffered);
+
+        assertEquals(1, buffer.pendingPosts());
+        Mockito.verify(jdbcTemplate).update(ArgumentMatchers.startsWith("update post_stats set views = views + 1"),
+                ArgumentMatchers.any(), ArgumentMatchers.eq(overflow));
+        assertEquals(1, buffer.flush());
+        assertEquals(2L, written.get(buffered));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.post;
+
+import com.example.demo.H2DataJpaTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports posts across several fetch batches from an in-memory database in PostgreSQL mode.
+ * The posts are committed before the export reads them in its own read-only transaction.
+ */
+@H2DataJpaTest(properties = {
+        "application.post-export.fetch-size=100"
+})
+@Import({PostExportService.class, JacksonAutoConfiguration.class})
+public class PostExportServiceTest {
+
+    private static final int POSTS = 250;
+
+    @Autowired
+    private PostExportService postExportService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testEveryPostIsWrittenOnOneLineWithItsImages() throws Exception {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setAuthor(UUID.randomUUID());
+            post.setImages(i % 2 == 0 ? List.of(i + ".png", i + ".jpg") : List.of());
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(POSTS, postExportService.exportPosts(output));
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(POSTS, lines.length);
+        Set<String> titles = new HashSet<>();
+        for (String line : lines) {
+            JsonNode post = objectMapper.readTree(line);
+            titles.add(post.get("title").asText());
+            int number = Integer.parseInt(post.get("title").asText().substring("Post ".length()));
+            assertEquals(number % 2 == 0 ? 2 : 0, post.get("images").size());
+        }
+        assertEquals(POSTS, titles.size());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.post;
+
+import com.example.demo.H2DataJpaTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the bulk import with saving posts one by one, against an in-memory database in PostgreSQL mode.
+ * The JDBC statements prepared by each are counted with the Hibernate statistics.
+ * Every chunk commits, as it would in production.
+ */
+@H2DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + PostImportServiceBenchmarkTest.BATCH_SIZE,
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "application.post-import.chunk-size=" + PostImportServiceBenchmarkTest.CHUNK_SIZE
+})
+@Import({PostImportService.class, JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+public class PostImportServiceBenchmarkTest {
+
+    static final int BATCH_SIZE = 50;
+    static final int CHUNK_SIZE = 500;
+    private static final int POSTS = 5_000;
+
+    // Tables written per post: posts, post_stats and post_images.
+    private static final int TABLES = 3;
+
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private PopularityIndex popularityIndex;
+
+    @MockBean
+    private PostCache postCache;
+
+    @Test
+    public void testImportReportsEveryPost() throws IOException {
+        String input = """
+                {"title": "First", "content": "Body", "images": ["a.png"]}
+                {"content": "No title"}
+                {"title": "Third"}
+                """;
+        List<PostImportResult> results = new ArrayList<>();
+
+        postImportService.importPosts(stream(input), UUID.randomUUID(), results::add);
+
+        assertEquals(3, results.size());
+        assertEquals(PostImportResult.Outcome.CREATED, results.get(0).outcome());
+        assertEquals(PostImportResult.Outcome.INVALID, results.get(1).outcome());
+        assertNull(results.get(1).id());
+        assertEquals(PostImportResult.Outcome.CREATED, results.get(2).outcome());
+        assertEquals(2, results.get(2).index());
+        assertTrue(postRepository.findById(results.get(0).id()).isPresent());
+    }
+
+    @Test
+    public void testClientCannotSetCountersStatusOrTimestamps() throws IOException {
+        String input = """
+                {"title": "Forged", "likes": 1000, "views": 5000, "uniqueViewers": 4000, "hotScore": 99.0,
+                 "status": "DRAFT", "createdAt": "2000-01-01T00:00:00", "updatedAt": "2000-01-01T00:00:00",
+                 "statsUpdatedAt": "2000-01-01T00:00:00"}
+                """;
+        List<PostImportResult> results = new ArrayList<>();
+
+        postImportService.importPosts(stream(input), UUID.randomUUID(), results::add);
+
+        Post post = postRepository.findById(results.get(0).id()).orElseThrow();
+        assertEquals(0L, post.getLikes());
+        assertEquals(0L, post.getViews());
+        assertEquals(0L, post.getUniqueViewers());
+        assertEquals(Status.PUBLISHED, post.getStatus());
+        assertTrue(post.getCreatedAt().getYear() > 2000);
+        assertNull(post.getUpdatedAt());
+    }
+
+    @Test
+    public void testMalformedElementEndsImport() throws IOException {
+        List<PostImportResult> results = new ArrayList<>();
+
+        postImportService.importPosts(stream("[{\"title\": \"First\"}, {\"title\": ]"), UUID.randomUUID(), results::add);
+
+        assertEquals(2, results.size());
+        assertEquals(PostImportResult.Outcome.CREATED, results.get(0).outcome());
+        assertEquals(PostImportResult.Outcome.INVALID, results.get(1).outcome());
+    }
+
+    @Test
+    public void testBulkImportBatchesStatements() throws IOException {
+        UUID author = UUID.randomUUID();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            input.append("{\"title\": \"Post ").append(i).append("\", \"content\": \"Body\", \"images\": [\"")
+                    .append(i).append(".png\"]}\n");
+        }
+        List<PostImportResult> results = new ArrayList<>(POSTS);
+        long before = postRepository.count();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        postImportService.importPosts(stream(input.toString()), author, results::add);
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(POSTS, results.size());
+        assertTrue(results.stream().allMatch(result -> result.outcome() == PostImportResult.Outcome.CREATED));
+        assertEquals(POSTS, statistics.getEntityInsertCount());
+
+        statistics.clear();
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setContent("Body");
+            post.setAuthor(author);
+            post.setImages(List.of(i + ".png"));
+            postRepository.save(post);
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        // One statement per table and JDBC batch; a chunk may end with a partial batch
+        assertTrue(bulkStatements <= TABLES * (POSTS / BATCH_SIZE + POSTS / CHUNK_SIZE),
+                () -> "bulk import prepared " + bulkStatements + " statements");
+        assertTrue(singleStatements >= (long) TABLES * POSTS,
+                () -> "single saves prepared " + singleStatements + " statements");
+        assertEquals(before + 2L * POSTS, postRepository.count());
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
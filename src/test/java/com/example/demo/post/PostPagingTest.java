@@ -0,0 +1,77 @@
+package com.example.demo.post;
+
+import com.example.demo.H2DataJpaTest;
+import com.example.demo.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the cursor-paginated post listings against an in-memory database in PostgreSQL mode.
+ * Each page is read in its own transaction, as consecutive requests would be.
+ */
+@H2DataJpaTest
+@Import(PostServiceTestConfiguration.class)
+public class PostPagingTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    public void testPagesCoverAuthorPostsOnceNewestFirst() {
+        UUID author = UUID.randomUUID();
+        for (int i = 0; i < 25; i++) {
+            createPost(author);
+        }
+        createPost(UUID.randomUUID());
+
+        List<Post> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PostPage page = postService.getPostsByAuthor(author, cursor, 10);
+            assertTrue(page.posts().size() <= 10);
+            seen.addAll(page.posts());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(author, seen.get(i).getAuthor());
+            assertTrue(ids.add(seen.get(i).getId()));
+            if (i > 0) {
+                assertFalse(seen.get(i).getCreatedAt().isAfter(seen.get(i - 1).getCreatedAt()));
+            }
+        }
+    }
+
+    @Test
+    public void testCursorRoundTrip() {
+        Post post = createPost(UUID.randomUUID());
+        PostCursor cursor = PostCursor.after(post);
+
+        assertEquals(cursor, PostCursor.decode(cursor.encode()));
+        assertThrows(InvalidCursorException.class, () -> postService.getPosts("not a cursor", 10));
+    }
+
+    private Post createPost(UUID author) {
+        Post post = new Post();
+        post.setTitle("Paging");
+        post.setAuthor(author);
+        return postRepository.save(post);
+    }
+}
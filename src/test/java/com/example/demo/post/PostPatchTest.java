@@ -0,0 +1,139 @@
+package com.example.demo.post;
+
+import com.example.demo.H2DataJpaTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs partial updates, including concurrent edits of the same version, against an in-memory database
+ * in PostgreSQL mode. Every call commits, as it would in production, so concurrent edits race on committed rows.
+ */
+@H2DataJpaTest
+@Import(PostServiceTestConfiguration.class)
+public class PostPatchTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPatchChangesOnlySuppliedFields() {
+        Post post = createPost();
+
+        PostPatch patch = new PostPatch(null, "Edited", null, null, null, List.of("b.png", "c.png"), post.getVersion());
+        assertEquals(HttpStatus.OK, postService.patchPost(post.getId(), patch, post.getAuthor(), false).getStatusCode());
+
+        Post patched = postRepository.findById(post.getId()).orElseThrow();
+        assertEquals("Original", patched.getTitle());
+        assertEquals("Edited", patched.getContent());
+        assertEquals(post.getVersion() + 1, patched.getVersion());
+        assertEquals(List.of("b.png", "c.png"), jdbcTemplate.queryForList(
+                "select image from post_images where post_id = ? order by image", String.class, post.getId()));
+    }
+
+    @Test
+    public void testStaleVersionIsRejected() {
+        Post post = createPost();
+        UUID author = post.getAuthor();
+
+        assertEquals(HttpStatus.OK, postService.patchPost(post.getId(),
+                new PostPatch("First", null, null, null, null, null, post.getVersion()), author, false).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, postService.patchPost(post.getId(),
+                new PostPatch("Second", null, null, null, null, null, post.getVersion()), author, false).getStatusCode());
+
+        assertEquals("First", postRepository.findById(post.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void testUpdateRequiresCurrentVersion() {
+        Post post = createPost();
+
+        Post unversioned = postRepository.findById(post.getId()).orElseThrow();
+        unversioned.setTitle("Unversioned");
+        unversioned.setVersion(null);
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, postService.updatePost(post.getId(), unversioned).getStatusCode());
+
+        Post edited = postRepository.findById(post.getId()).orElseThrow();
+        edited.setTitle("Edited");
+        assertEquals(HttpStatus.OK, postService.updatePost(post.getId(), edited).getStatusCode());
+
+        Post stale = postRepository.findById(post.getId()).orElseThrow();
+        stale.setTitle("Stale");
+        stale.setVersion(post.getVersion());
+        assertEquals(HttpStatus.CONFLICT, postService.updatePost(post.getId(), stale).getStatusCode());
+
+        assertEquals("Edited", postRepository.findById(post.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void testOnlyAuthorOrAdminMayPatch() {
+        Post post = createPost();
+        PostPatch patch = new PostPatch("Other", null, null, null, null, null, post.getVersion());
+
+        assertEquals(HttpStatus.FORBIDDEN, postService.patchPost(post.getId(), patch, UUID.randomUUID(), false).getStatusCode());
+        assertEquals(HttpStatus.OK, postService.patchPost(post.getId(), patch, UUID.randomUUID(), true).getStatusCode());
+    }
+
+    @Test
+    public void testConcurrentEditsOfSameVersionHaveOneWinner() throws Exception {
+        Post post = createPost();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<HttpStatus>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                PostPatch patch = new PostPatch("Title " + thread, null, null, null, null, null, post.getVersion());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return (HttpStatus) postService.patchPost(post.getId(), patch, post.getAuthor(), false).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<String> winners = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                HttpStatus status = futures.get(thread).get();
+                assertTrue(status == HttpStatus.OK || status == HttpStatus.CONFLICT, status.toString());
+                if (status == HttpStatus.OK) {
+                    winners.add("Title " + thread);
+                }
+            }
+
+            assertEquals(1, winners.size());
+            Post patched = postRepository.findById(post.getId()).orElseThrow();
+            assertEquals(winners.get(0), patched.getTitle());
+            assertEquals(post.getVersion() + 1, patched.getVersion());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Post createPost() {
+        Post post = new Post();
+        post.setTitle("Original");
+        post.setContent("Body");
+        post.setAuthor(UUID.randomUUID());
+        post.setImages(List.of("a.png"));
+        return postRepository.save(post);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.post;
+
+import com.example.demo.util.BoundedTtlCache;
+import com.example.demo.util.SerializedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostResponseCacheTest {
+
+    private PostResponseCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new PostResponseCache(new BoundedTtlCache<>("response", 100, Duration.ofMinutes(1)),
+                new ObjectMapper(), 1024);
+    }
+
+    @Test
+    public void testPostIsSerializedOnceUntilInvalidated() {
+        Post post = post("Hot");
+        AtomicInteger loads = new AtomicInteger();
+
+        SerializedResponse first = cache.post(post.getId(), eTagOf(post), () -> {
+            loads.incrementAndGet();
+            return post;
+        });
+        SerializedResponse second = cache.post(post.getId(), eTagOf(post), () -> {
+            loads.incrementAndGet();
+            return post;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        cache.invalidate(post.getId());
+        cache.post(post.getId(), eTagOf(post), () -> {
+            loads.incrementAndGet();
+            return post;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testPostSerializedFromOtherStateIsReloaded() {
+        Post post = post("Hot");
+        post.setLikes(1L);
+        String before = eTagOf(post);
+        cache.post(post.getId(), before, () -> post);
+
+        // Changed without invalidating this cache, as through another instance
+        post.setLikes(2L);
+        SerializedResponse changed = cache.post(post.getId(), eTagOf(post), () -> post);
+
+        assertEquals(eTagOf(post), changed.eTag());
+        assertTrue(new String(changed.json()).contains("\"likes\":2"));
+        assertSame(changed, cache.post(post.getId(), eTagOf(post), () -> post));
+    }
+
+    @Test
+    public void testAnyPostChangeOutdatesListings() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.listing("popular?limit=20", () -> loads.incrementAndGet() > 0 ? List.of(post("A")) : null);
+        cache.listing("popular?limit=20", () -> loads.incrementAndGet() > 0 ? List.of(post("A")) : null);
+        assertEquals(1, loads.get());
+
+        cache.invalidate(UUID.randomUUID());
+        cache.listing("popular?limit=20", () -> loads.incrementAndGet() > 0 ? List.of(post("A")) : null);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testCounterChangeKeepsListings() {
+        AtomicInteger loads = new AtomicInteger();
+        Post post = post("A");
+
+        cache.listing("popular?limit=20", () -> loads.incrementAndGet() > 0 ? List.of(post) : null);
+        cache.post(post.getId(), eTagOf(post), () -> post);
+        cache.invalidatePost(post.getId());
+        cache.listing("popular?limit=20", () -> loads.incrementAndGet() > 0 ? List.of(post) : null);
+        assertEquals(1, loads.get());
+
+        cache.post(post.getId(), eTagOf(post), () -> {
+            loads.incrementAndGet();
+            return post;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLargeResponsesAreAlsoKeptCompressed() throws Exception {
+        SerializedResponse small = cache.listing("small", () -> List.of(post("A")));
+        SerializedResponse large = cache.listing("large", () -> List.of(post("A".repeat(2_000))));
+
+        assertNull(small.gzip());
+        assertNotNull(large.gzip());
+        assertTrue(large.gzip().length < large.json().length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(large.gzip()))) {
+            assertArrayEquals(large.json(), gzip.readAllBytes());
+        }
+    }
+
+    private String eTagOf(Post post) {
+        return PostValidator.of(post).eTag();
+    }
+
+    private Post post(String title) {
+        Post post = new Post();
+        post.setId(UUID.randomUUID());
+        post.setTitle(title);
+        return post;
+    }
+}
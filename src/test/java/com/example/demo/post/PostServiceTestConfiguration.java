@@ -0,0 +1,16 @@
+package com.example.demo.post;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Provides PostService to JPA slice tests, with its in-memory collaborators mocked.
+ * Tests that import this share one application context instead of each declaring the mocks.
+ */
+@TestConfiguration
+@Import(PostService.class)
+@MockBean({PostCounterBuffer.class, ReactionService.class, UniqueViewerCounter.class, PopularityIndex.class,
+        DraftAutosaveBuffer.class, PostCache.class})
+public class PostServiceTestConfiguration {
+}
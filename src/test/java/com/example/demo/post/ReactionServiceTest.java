@@ -0,0 +1,124 @@
+package com.example.demo.post;
+
+import com.example.demo.H2DataJpaTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reaction transitions against an in-memory database in PostgreSQL mode.
+ */
+@H2DataJpaTest(properties = {
+        "application.reactions.expected-reactions=10000",
+        "application.reactions.false-positive-rate=0.01"
+})
+@Import(ReactionService.class)
+public class ReactionServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int USERS_PER_THREAD = 25;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ReactionService reactionService;
+
+    @Autowired
+    private ReactionRepository reactionRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    public void testReactionTransitions() {
+        UUID postId = createPost();
+        UUID userId = UUID.randomUUID();
+
+        assertEquals(Optional.empty(), reactionService.getReaction(postId, userId));
+        assertEquals(ReactionService.Result.ADDED, reactionService.react(postId, userId, ReactionType.LIKE));
+        assertEquals(ReactionService.Result.UNCHANGED, reactionService.react(postId, userId, ReactionType.LIKE));
+        assertCounts(postId, 1, 0);
+
+        assertEquals(ReactionService.Result.SWITCHED, reactionService.react(postId, userId, ReactionType.DISLIKE));
+        assertEquals(Optional.of(ReactionType.DISLIKE), reactionService.getReaction(postId, userId));
+        assertCounts(postId, 0, 1);
+
+        assertEquals(Optional.of(ReactionType.DISLIKE), reactionService.removeReaction(postId, userId));
+        assertEquals(Optional.empty(), reactionService.removeReaction(postId, userId));
+        assertEquals(Optional.empty(), reactionService.getReaction(postId, userId));
+        assertCounts(postId, 0, 0);
+    }
+
+    @Test
+    public void testReactionRecordedByAnotherInstanceIsFound() {
+        UUID postId = createPost();
+        UUID userId = UUID.randomUUID();
+        reactionService.loadFilter();
+
+        // Written past this instance, so its filter does not know the pair
+        reactionRepository.insertIfAbsent(postId, userId, ReactionType.LIKE.name(), LocalDateTime.now());
+
+        assertEquals(Optional.of(ReactionType.LIKE), reactionService.getReaction(postId, userId));
+    }
+
+    @Test
+    public void testConcurrentReactionsKeepExactCounts() throws Exception {
+        UUID postId = createPost();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                futures.add(executor.submit(() -> {
+                    List<UUID> users = new ArrayList<>();
+                    for (int i = 0; i < USERS_PER_THREAD; i++) {
+                        users.add(UUID.randomUUID());
+                    }
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (UUID userId : users) {
+                            switch (random.nextInt(3)) {
+                                case 0 -> reactionService.react(postId, userId, ReactionType.LIKE);
+                                case 1 -> reactionService.react(postId, userId, ReactionType.DISLIKE);
+                                default -> reactionService.removeReaction(postId, userId);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long likes = reactionRepository.countByPostIdAndType(postId, ReactionType.LIKE);
+        long dislikes = reactionRepository.countByPostIdAndType(postId, ReactionType.DISLIKE);
+        assertCounts(postId, likes, dislikes);
+        assertTrue(likes + dislikes <= THREADS * USERS_PER_THREAD);
+    }
+
+    private UUID createPost() {
+        Post post = new Post();
+        post.setTitle("Reactions");
+        post.setAuthor(UUID.randomUUID());
+        return postRepository.save(post).getId();
+    }
+
+    private void assertCounts(UUID postId, long likes, long dislikes) {
+        Post post = postRepository.findById(postId).orElseThrow();
+        assertEquals(likes, post.getLikes());
+        assertEquals(dislikes, post.getDislikes());
+    }
+}
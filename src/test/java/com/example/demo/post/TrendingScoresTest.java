@@ -0,0 +1,33 @@
+package com.example.demo.post;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrendingScoresTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    public void testNewerPostOutranksOlderPostWithSamePoints() {
+        assertTrue(TrendingScores.score(10, 0, 0, CREATED_AT.plusHours(1))
+                > TrendingScores.score(10, 0, 0, CREATED_AT));
+    }
+
+    @Test
+    public void testTenfoldPointsMakeUpForOneDecayPeriod() {
+        LocalDateTime later = CREATED_AT.plusSeconds((long) TrendingScores.SECONDS_PER_ORDER);
+
+        assertEquals(TrendingScores.score(10, 0, 0, later), TrendingScores.score(100, 0, 0, CREATED_AT), 1e-9);
+    }
+
+    @Test
+    public void testViewsAndDislikesContribute() {
+        double base = TrendingScores.score(10, 0, 0, CREATED_AT);
+
+        assertTrue(TrendingScores.score(10, 0, 1_000, CREATED_AT) > base);
+        assertTrue(TrendingScores.score(10, 50, 0, CREATED_AT) < base);
+    }
+}
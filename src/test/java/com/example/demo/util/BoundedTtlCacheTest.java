@@ -0,0 +1,106 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedTtlCacheTest {
+
+    private BoundedTtlCache<String, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new BoundedTtlCache<>("test", 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void testLoadRacingWithInvalidationOfSameKeyIsNotCached() {
+        String loaded = cache.get("a", key -> {
+            cache.invalidate("a");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testLoadRacingWithInvalidationOfOtherKeyIsCached() {
+        cache.get("a", key -> {
+            cache.invalidate("b");
+            return "value";
+        });
+
+        assertEquals("value", cache.get("a"));
+    }
+
+    @Test
+    public void testLoadRacingWithInvalidateAllIsNotCached() {
+        cache.get("a", key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testLoaderFailureDoesNotBlockLaterLoads() {
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("value", cache.get("a", key -> "value"));
+        assertEquals("value", cache.get("a"));
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> cache.get("a", key -> {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "value";
+            }));
+        }
+        Thread.sleep(200); // Lets every thread miss while the first load is blocked
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, loads.get());
+        assertEquals("value", cache.get("a"));
+    }
+
+    @Test
+    public void testRecentlyUsedEntriesSurviveEviction() {
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cache.get("key0");
+
+        for (int i = 100; i < 150; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals(50, cache.evictionCount());
+        assertEquals("value0", cache.get("key0"));
+        assertNull(cache.get("key1"));
+    }
+}
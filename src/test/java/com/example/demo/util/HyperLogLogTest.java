@@ -0,0 +1,68 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    private static final int DISTINCT = 100_000;
+
+    @Test
+    public void testEstimateIsWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < DISTINCT; i++) {
+            sketch.offer(BloomFilter.mix(i));
+            sketch.offer(BloomFilter.mix(i)); // Repeated elements do not count
+        }
+
+        assertWithinErrorBound(DISTINCT, sketch.estimate());
+    }
+
+    @Test
+    public void testSmallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0, sketch.estimate());
+        for (int i = 0; i < 10; i++) {
+            sketch.offer(BloomFilter.mix(i));
+        }
+
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    public void testMergeEstimatesUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < DISTINCT; i++) {
+            first.offer(BloomFilter.mix(i));
+            second.offer(BloomFilter.mix(i + DISTINCT / 2)); // Half of the elements overlap
+        }
+
+        HyperLogLog union = new HyperLogLog(first.toBytes());
+        assertTrue(union.merge(second));
+        assertFalse(union.merge(second)); // Merging is idempotent
+
+        assertWithinErrorBound(DISTINCT * 3 / 2, union.estimate());
+    }
+
+    @Test
+    public void testSerializedSketchRoundTrips() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.offer(BloomFilter.mix(i));
+        }
+
+        byte[] bytes = sketch.toBytes();
+        assertEquals(HyperLogLog.REGISTER_COUNT, bytes.length);
+        assertEquals(sketch.estimate(), new HyperLogLog(bytes).estimate());
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(new byte[16]));
+    }
+
+    private void assertWithinErrorBound(long expected, long estimate) {
+        // Four standard errors, so a correct sketch practically never fails
+        double tolerance = 4 * HyperLogLog.STANDARD_ERROR * expected;
+        assertTrue(Math.abs(estimate - expected) <= tolerance,
+                () -> "Estimate " + estimate + " is not within " + tolerance + " of " + expected);
+    }
+}
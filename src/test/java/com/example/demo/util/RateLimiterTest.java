@@ -0,0 +1,65 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static final int CAPACITY = 3;
+    private static final int MAX_KEYS = 256; // Four keys per stripe
+
+    @Test
+    public void testKeyIsLimitedAfterBurst() {
+        RateLimiter limiter = new RateLimiter(CAPACITY, Duration.ofHours(1), MAX_KEYS);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(limiter.tryAcquire("john.doe@example.com"));
+        }
+
+        assertFalse(limiter.tryAcquire("john.doe@example.com"));
+        assertTrue(limiter.tryAcquire("jane.doe@example.com"));
+    }
+
+    @Test
+    public void testFullStripesStillThrottle() {
+        RateLimiter limiter = new RateLimiter(CAPACITY, Duration.ofHours(1), MAX_KEYS);
+        for (int i = 0; i < CAPACITY; i++) {
+            limiter.tryAcquire("victim@example.com");
+        }
+
+        // Far more junk keys than the limiter tracks, so every stripe is full many times over
+        for (int i = 0; i < 100 * MAX_KEYS; i++) {
+            limiter.tryAcquire("junk-" + i + "@example.com");
+        }
+
+        assertFalse(limiter.tryAcquire("victim@example.com"));
+        assertTrue(limiter.trackedKeys() <= MAX_KEYS);
+        assertTrue(limiter.displacedCount() > 0);
+
+        // Keys first seen while the stripes are full are tracked too
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(limiter.tryAcquire("latecomer@example.com"));
+        }
+        assertFalse(limiter.tryAcquire("latecomer@example.com"));
+    }
+
+    @Test
+    public void testLargeStripesMakeRoomBySampling() {
+        int maxKeys = 64 * 64; // Stripes larger than the eviction sample
+        RateLimiter limiter = new RateLimiter(CAPACITY, Duration.ofHours(1), maxKeys);
+        for (int i = 0; i < CAPACITY; i++) {
+            limiter.tryAcquire("victim@example.com");
+        }
+
+        for (int i = 0; i < 10 * maxKeys; i++) {
+            limiter.tryAcquire("junk-" + i + "@example.com");
+        }
+
+        // Only a sample consisting of the victim alone could displace it
+        assertFalse(limiter.tryAcquire("victim@example.com"));
+        assertEquals(maxKeys, limiter.trackedKeys());
+        assertEquals(9 * maxKeys + 1, limiter.displacedCount());
+    }
+}